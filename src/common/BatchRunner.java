@@ -0,0 +1,168 @@
+package common;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays scripted games headlessly through Game.apply, many instances at once, for batch play and load tests.
+ * - A script file holds one or more games: a header line "game <spec>" (see Game.create), then one command
+ *   per line exactly as typed in the interactive loop; '#' lines and blank lines are skipped
+ * - Every game runs --copies times as independent instances on --threads workers; all copies must end in the
+ *   same state, otherwise the game is reported as DIVERGED
+ * - Output: one line per scripted game (id = file:line of its header, commands played, rejected, how it ended),
+ *   then a summary with commands/sec over all instances
+ *
+ * Usage: java common.BatchRunner script.txt... [--threads N] [--copies K]
+ */
+public class BatchRunner {
+    private final ExecutorService pool;
+    private final int threads, copies;
+    private final AtomicLong commands = new AtomicLong(), rejected = new AtomicLong();
+    private final AtomicInteger finished = new AtomicInteger(), failed = new AtomicInteger();
+
+    public BatchRunner(int threads, int copies) {
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.threads = threads;
+        this.copies = copies;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.out.println("Usage: BatchRunner <script.txt>... [--threads N] [--copies K]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors(), copies = 1;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--copies": copies = Integer.parseInt(args[++i]); break;
+                default:
+                    if (args[i].startsWith("--")) {
+                        System.out.println("Unknown option: " + args[i]);
+                        return;
+                    }
+                    files.add(Paths.get(args[i]));
+            }
+        }
+        new BatchRunner(threads, Math.max(1, copies)).run(files);
+    }
+
+    /* Reads every script, plays all instances, then prints one line per game and a summary line. */
+    public void run(List<Path> files) throws IOException, InterruptedException {
+        List<Script> scripts = new ArrayList<>();
+        for (Path f : files) load(f, scripts);
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Script s : scripts) {
+            if (s.error != null) continue;
+            for (int c = 0; c < copies; c++) {
+                int copy = c;
+                tasks.add(() -> {
+                    s.play(copy);
+                    return null;
+                });
+            }
+        }
+        long start = System.nanoTime();
+        pool.invokeAll(tasks);
+        long nanos = Math.max(1, System.nanoTime() - start);
+        pool.shutdown();
+
+        System.out.println("# id\tgame\tcommands\trejected\tend\tstatus");
+        for (Script s : scripts) System.out.println(s.report());
+        System.out.println(String.format("# games=%d instances=%d commands=%d rejected=%d finished=%d failed=%d wall=%dms commands/sec=%d threads=%d",
+                scripts.size(), tasks.size(), commands.get(), rejected.get(), finished.get(), failed.get(),
+                nanos / 1_000_000, (long) (commands.get() * 1e9 / nanos), threads));
+    }
+
+    private void load(Path file, List<Script> scripts) throws IOException {
+        try (BufferedReader br = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            Script current = null;
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                String t = line.trim();
+                if (t.isEmpty() || t.startsWith("#")) continue;
+                if (t.startsWith("game ")) {
+                    current = new Script(file.getFileName() + ":" + lineNo, t.substring(5).trim());
+                    scripts.add(current);
+                } else if (current == null) {
+                    throw new IOException(file + ":" + lineNo + ": command before the first 'game' line");
+                } else {
+                    current.commands.add(t);
+                }
+            }
+        }
+    }
+
+    /* One scripted game and the outcome of each of its copies. */
+    private final class Script {
+        final String id, spec;
+        final List<String> commands = new ArrayList<>();
+        final String[] ends;            // per copy: how it ended followed by the final state
+        String error, game = "-";
+        int played, refused;            // of copy 0
+
+        Script(String id, String spec) {
+            this.id = id;
+            this.spec = spec;
+            ends = new String[copies];
+            try {
+                game = Game.create(spec).getClass().getSimpleName();
+            } catch (RuntimeException e) {   // a bad header only invalidates its own game
+                error = e.getMessage() != null ? e.getMessage() : e.toString();
+            }
+        }
+
+        void play(int copy) {
+            Game g = Game.create(spec);
+            int n = 0, bad = 0;
+            CommandResult.Status end = null;
+            try {
+                for (String cmd : commands) {
+                    CommandResult r = g.apply(cmd);
+                    n++;
+                    if (r.status == CommandResult.Status.REJECTED) bad++;
+                    if (r.ended()) {
+                        end = r.status;
+                        break;
+                    }
+                }
+                if (end == CommandResult.Status.FINISHED) finished.incrementAndGet();
+                ends[copy] = (end == null ? "OPEN" : end.toString()) + "\n" + g.state();
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+                ends[copy] = "ERROR " + e;
+            }
+            BatchRunner.this.commands.addAndGet(n);
+            rejected.addAndGet(bad);
+            if (copy == 0) {
+                played = n;
+                refused = bad;
+            }
+        }
+
+        String report() {
+            if (error != null) return id + "\t-\t-\t-\t-\tINVALID " + error;
+            String first = ends[0];
+            if (first.startsWith("ERROR")) return id + "\t" + game + "\t-\t-\t-\t" + first;
+            for (String e : ends) {
+                if (!first.equals(e)) return id + "\t" + game + "\t" + played + "\t" + refused + "\t-\tDIVERGED";
+            }
+            return id + "\t" + game + "\t" + played + "\t" + refused + "\t" + first.substring(0, first.indexOf('\n')) + "\tOK";
+        }
+    }
+}
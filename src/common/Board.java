@@ -6,17 +6,22 @@ import java.util.Scanner;
 /** Generic abstract board class for all games. */
 public abstract class Board<T> {
     public static AbstractMap.SimpleEntry<Integer, Integer> setupBoardDimensions(Scanner sc) {
+        return setupBoardDimensions(sc, 10);
+    }
+
+    /** Asks for rows and cols, each between 2 and max. */
+    public static AbstractMap.SimpleEntry<Integer, Integer> setupBoardDimensions(Scanner sc, int max) {
         System.out.print("Rows: ");
         int rows = sc.nextInt();
-        while (rows < 2 || rows > 10) {
-            System.out.println("Rows value should be between 2 and 10");
+        while (rows < 2 || rows > max) {
+            System.out.println("Rows value should be between 2 and " + max);
             System.out.print("Rows: ");
             rows = sc.nextInt();
         }
         System.out.print("Cols: ");
         int cols = sc.nextInt();
-        while (cols < 2 || cols > 10) {
-            System.out.println("Cols value should be between 2 and 10");
+        while (cols < 2 || cols > max) {
+            System.out.println("Cols value should be between 2 and " + max);
             System.out.print("Cols: ");
             cols = sc.nextInt();
         }
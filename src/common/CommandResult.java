@@ -0,0 +1,41 @@
+package common;
+
+/** Outcome of one command passed to Game.apply, with the text the interactive loop prints for it. */
+public final class CommandResult {
+    public enum Status {
+        MOVED,      // a move was played and the game goes on
+        INFO,       // answered without changing the game (hint, analysis, empty line)
+        REJECTED,   // invalid input or illegal move; nothing changed
+        FINISHED,   // the command ended the game
+        QUIT        // the player left the game
+    }
+
+    private static final CommandResult MOVED = new CommandResult(Status.MOVED, "");
+    private static final CommandResult FINISHED = new CommandResult(Status.FINISHED, "");
+    private static final CommandResult NOTHING = new CommandResult(Status.INFO, "");
+
+    public final Status status;
+    public final String message;   // "" when there is nothing to print
+
+    private CommandResult(Status status, String message) {
+        this.status = status;
+        this.message = message;
+    }
+
+    public static CommandResult moved() { return MOVED; }
+    public static CommandResult moved(String message) { return new CommandResult(Status.MOVED, message); }
+    public static CommandResult finished() { return FINISHED; }
+    public static CommandResult finished(String message) { return new CommandResult(Status.FINISHED, message); }
+    public static CommandResult info(String message) { return message.isEmpty() ? NOTHING : new CommandResult(Status.INFO, message); }
+    public static CommandResult rejected(String message) { return new CommandResult(Status.REJECTED, message); }
+    public static CommandResult quit(String message) { return new CommandResult(Status.QUIT, message); }
+
+    /** True if the command changed the game. */
+    public boolean accepted() { return status == Status.MOVED || status == Status.FINISHED; }
+
+    /** True if no further commands are expected. */
+    public boolean ended() { return status == Status.FINISHED || status == Status.QUIT; }
+
+    @Override
+    public String toString() { return message.isEmpty() ? status.toString() : status + ": " + message; }
+}
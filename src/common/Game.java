@@ -1,10 +1,20 @@
 package common;
 
+import common.gameUtils.GameRecorder;
+import common.gameUtils.GameRecording;
+import common.gameUtils.GameSave;
+import common.gameUtils.ReplayView;
 import common.gameUtils.Score;
+import common.gameUtils.Timer;
 import dotsAndBoxes.DotsAndBoxes;
 import slidePuzzle.SlidePuzzle;
 import quoridor.Quoridor;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
 import java.util.Scanner;
 
 public abstract class Game {
@@ -19,6 +29,10 @@ public abstract class Game {
             System.out.println("2) Dots and Boxes");
             System.out.println("3) Quoridor (NEW)");
             System.out.println("4) View Scores");
+            System.out.println("5) Leaderboards");
+            System.out.println("6) Player Stats");
+            System.out.println("7) Replay");
+            System.out.println("8) Resume Saved Game");
             System.out.println("0) Exit");
             System.out.print("Select: ");
 
@@ -26,15 +40,189 @@ public abstract class Game {
             switch (opt) {
                 case "1": SlidePuzzle.launchSlidePuzzle(sc, score); break;
                 case "2": DotsAndBoxes.launchDotsAndBoxes(sc, score); break;
-                case "3": new Quoridor().start(); break;
-                case "4": score.showScores(); break;
-                case "0": System.out.println("Goodbye!"); return;
+                case "3": Quoridor.launchQuoridor(score); break;
+                case "4":
+                    System.out.print("Game or player to filter by (Enter for all): ");
+                    String filter = sc.nextLine().trim();
+                    if (filter.isEmpty()) score.showScores();
+                    else score.showScores(filter);
+                    break;
+                case "5":
+                    String[] games = Score.games();
+                    for (int i = 0; i < games.length; i++) System.out.println((i + 1) + ") " + games[i]);
+                    System.out.print("Game (Enter for most wins overall): ");
+                    String pick = sc.nextLine().trim();
+                    String chosen = null;
+                    for (int i = 0; i < games.length; i++) if (pick.equals(String.valueOf(i + 1))) chosen = games[i];
+                    if (pick.isEmpty() || chosen != null) score.showLeaderboard(chosen);
+                    else System.out.println("Invalid choice.");
+                    break;
+                case "6":
+                    System.out.print("Player name: ");
+                    score.showPlayerStats(sc.nextLine().trim());
+                    break;
+                case "7": replay(sc); break;
+                case "8": resume(sc, score); break;
+                case "0":
+                    score.close();
+                    System.out.println("Goodbye!");
+                    return;
                 default: System.out.println("Invalid choice.");
             }
         }
     }
 
+    /* Lists saved games (headers only) and continues the chosen one */
+    private static void resume(Scanner sc, Score score) {
+        GameSave.Info info;
+        byte[] state;
+        try {
+            List<GameSave.Info> saves = GameSave.list();
+            if (saves.isEmpty()) {
+                System.out.println("No saved games.");
+                return;
+            }
+            SimpleDateFormat when = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+            String[] games = Score.games();
+            for (int i = 0; i < saves.size(); i++) {
+                GameSave.Info s = saves.get(i);
+                String game = s.game >= 1 && s.game <= games.length ? games[s.game - 1] : "Game " + s.game;
+                System.out.println((i + 1) + ") " + game + " " + s.rows + "x" + s.cols + " - " + String.join(" vs ", s.players())
+                        + ", " + s.moves + " moves, " + Timer.formatTime(s.elapsedMillis / 1000)
+                        + ", saved " + when.format(new Date(s.savedAt)));
+            }
+            System.out.print("Saved game: ");
+            int pick = Integer.parseInt(sc.nextLine().trim()) - 1;
+            if (pick < 0 || pick >= saves.size()) throw new NumberFormatException();
+            info = saves.get(pick);
+            state = GameSave.load(info);
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid choice.");
+            return;
+        } catch (IOException e) {
+            System.out.println("Cannot resume: " + e.getMessage());
+            return;
+        }
+        try {
+            switch (info.game) {
+                case GameRecorder.SLIDE_PUZZLE: SlidePuzzle.resumeSlidePuzzle(score, info, state); break;
+                case GameRecorder.DOTS_AND_BOXES: DotsAndBoxes.resumeDotsAndBoxes(score, info, state); break;
+                case GameRecorder.QUORIDOR: new Quoridor().resume(score, info, state); break;
+                default: System.out.println("Not a save of a known game: " + info.file.getFileName());
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println("Cannot resume " + info.file.getFileName() + ": " + e.getMessage());
+        }
+    }
+
+    /* Lets the user pick a recording and step through it (Enter/N next, P previous, G n jump, Q quit) */
+    private static void replay(Scanner sc) {
+        GameRecording rec;
+        try {
+            List<Path> files = GameRecording.list();
+            if (files.isEmpty()) {
+                System.out.println("No recordings yet.");
+                return;
+            }
+            for (int i = 0; i < files.size(); i++) System.out.println((i + 1) + ") " + files.get(i).getFileName());
+            System.out.print("Recording: ");
+            int pick = Integer.parseInt(sc.nextLine().trim()) - 1;
+            if (pick < 0 || pick >= files.size()) throw new NumberFormatException();
+            rec = GameRecording.open(files.get(pick));
+        } catch (NumberFormatException e) {
+            System.out.println("Invalid choice.");
+            return;
+        } catch (IOException e) {
+            System.out.println("Cannot read recording: " + e.getMessage());
+            return;
+        }
+        ReplayView view;
+        try {
+            view = replayView(rec);
+        } catch (IllegalArgumentException e) {
+            view = null;
+        }
+        if (view == null) {
+            System.out.println("Not a recording of a known game: " + rec.file().getFileName());
+            return;
+        }
+        System.out.println(String.join(" vs ", rec.players()) + ", " + rec.moves() + " moves.");
+        int at = 0;
+        while (true) {
+            int code;
+            try {
+                code = rec.seek(at, view);
+            } catch (RuntimeException e) {
+                System.out.println("Recording is damaged at move " + at + ": " + e.getMessage());
+                return;
+            }
+            System.out.println(at == 0 ? "Start" : "Move " + at + "/" + rec.moves() + ": " + view.describe(code));
+            System.out.println(view.render());
+            System.out.print("[Enter/N] next, P previous, G <n> go to move, Q quit: ");
+            String[] cmd = sc.nextLine().trim().toUpperCase().split("\\s+");
+            switch (cmd[0]) {
+                case "": case "N": if (at < rec.moves()) at++; break;
+                case "P": if (at > 0) at--; break;
+                case "G":
+                    try {
+                        at = Math.max(0, Math.min(rec.moves(), Integer.parseInt(cmd[1])));
+                    } catch (RuntimeException e) {
+                        System.out.println("Usage: G <move number>");
+                    }
+                    break;
+                case "Q": return;
+                default: System.out.println("Invalid command.");
+            }
+        }
+    }
+
+    private static ReplayView replayView(GameRecording rec) {
+        switch (rec.game()) {
+            case GameRecorder.SLIDE_PUZZLE: return SlidePuzzle.replayView(rec.rows(), rec.cols());
+            case GameRecorder.DOTS_AND_BOXES: return DotsAndBoxes.replayView(rec.rows(), rec.cols(), rec.players());
+            case GameRecorder.QUORIDOR: return Quoridor.replayView(rec.rows(), rec.players());
+            default: return null;
+        }
+    }
+
+    /**
+     * Headless game from a spec: "slide rows cols seed", "dots rows cols nameA nameB" or "quoridor size nameA nameB".
+     * Throws IllegalArgumentException for anything else.
+     */
+    public static Game create(String spec) {
+        String[] w = spec.trim().split("\\s+");
+        try {
+            switch (w[0].toLowerCase()) {
+                case "slide":
+                    if (w.length != 4) break;
+                    int rows = Integer.parseInt(w[1]), cols = Integer.parseInt(w[2]);
+                    if (rows < 2 || cols < 2) throw new IllegalArgumentException("Slide Puzzle needs at least 2x2.");
+                    return new SlidePuzzle(rows, cols, Long.parseLong(w[3]));
+                case "dots":
+                    if (w.length != 5) break;
+                    return new DotsAndBoxes(Integer.parseInt(w[1]), Integer.parseInt(w[2]), w[3], w[4]);
+                case "quoridor":
+                    if (w.length != 4) break;
+                    return new Quoridor(Integer.parseInt(w[1]), w[2], w[3]);
+                default:
+                    throw new IllegalArgumentException("Unknown game: " + w[0]);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad number in game spec: " + spec);
+        }
+        throw new IllegalArgumentException("Wrong number of fields in game spec: " + spec);
+    }
+
     public abstract void start();
     public abstract void reset();
     public abstract String state();
+
+    /**
+     * Plays one command as typed in the game's loop (e.g. "U", "3 4", "M 2 5") without touching System.in/out.
+     * The interactive loops go through here too, so input is validated the same way in both.
+     */
+    public abstract CommandResult apply(String command);
+
+    /** Player (1 or 2) whose command apply expects next; always 1 in single-player games. */
+    public int currentSide() { return 1; }
 }
@@ -0,0 +1,439 @@
+package common;
+
+import common.gameUtils.ThreadPools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Line-based TCP server hosting many games in one JVM, one (virtual) thread and at most one Game per connection.
+ * - Lobby commands: PLAY <spec> (a game of your own, spec as in Game.create), HOST dots <rows> <cols> <name> or
+ *   HOST quoridor <size> <name> (opens a two-player room), JOIN <room> <name>, ROOMS, STATS, HELP, BYE
+ * - In a game every line goes to Game.apply, so the commands are the console ones (U/D/L/R, point pairs, M r c, ...);
+ *   LEAVE ends the game. In a room only the player to move may send commands
+ * - Server lines start with a keyword: BOARD / MSG (text), ROOM, START, MOVE (opponent's command), TURN, END, ERR,
+ *   and RESULT <status> exactly once per client line
+ * - Per session: 512-byte input and 2 KB output buffers, a bounded line buffer, no Game until one is started;
+ *   the board text is rendered only when it is sent
+ *
+ * Usage: java common.GameServer [--port N] [--bind addr] [--max-sessions N] [--idle seconds]
+ */
+public class GameServer {
+    public static final int DEFAULT_PORT = 4611;
+    private static final int MAX_LINE = 256;
+
+    private final ServerSocket server;
+    private final int maxSessions, idleMillis;
+    private final ExecutorService sessions = ThreadPools.perConnectionExecutor();
+    private final AtomicInteger open = new AtomicInteger(), games = new AtomicInteger(), nextRoom = new AtomicInteger();
+    private final Map<Integer, Room> waiting = new ConcurrentHashMap<>();
+
+    public GameServer(InetSocketAddress address, int maxSessions, int idleMillis) throws IOException {
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(address, 1024);
+        this.maxSessions = maxSessions;
+        this.idleMillis = idleMillis;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT, maxSessions = 10_000, idle = 0;
+        String bind = "127.0.0.1";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(args[++i]); break;
+                case "--bind": bind = args[++i]; break;
+                case "--max-sessions": maxSessions = Integer.parseInt(args[++i]); break;
+                case "--idle": idle = Integer.parseInt(args[++i]) * 1000; break;
+                default:
+                    System.out.println("Usage: GameServer [--port N] [--bind addr] [--max-sessions N] [--idle seconds]");
+                    return;
+            }
+        }
+        GameServer gs = new GameServer(new InetSocketAddress(InetAddress.getByName(bind), port), maxSessions, idle);
+        System.out.println("# listening on " + gs.server.getLocalSocketAddress()
+                + (ThreadPools.hasVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+        gs.serve();
+    }
+
+    public int port() { return server.getLocalPort(); }
+
+    /* Accepts connections until the server socket is closed. */
+    public void serve() throws IOException {
+        try {
+            while (true) {
+                Socket s = server.accept();
+                if (open.incrementAndGet() > maxSessions) {
+                    open.decrementAndGet();
+                    reject(s, "ERR Server full.");
+                    continue;
+                }
+                try {
+                    sessions.execute(new Session(s));
+                } catch (RuntimeException e) {
+                    open.decrementAndGet();
+                    reject(s, "ERR Server shutting down.");
+                }
+            }
+        } catch (IOException e) {
+            if (!server.isClosed()) throw e;
+        } finally {
+            sessions.shutdown();
+        }
+    }
+
+    /** Stops accepting; sessions already connected play on until they leave. */
+    public void close() throws IOException {
+        server.close();
+    }
+
+    private static void reject(Socket s, String line) {
+        try (Socket c = s) {
+            c.getOutputStream().write((line + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // client already gone
+        }
+    }
+
+    /* Two-player game: the host is side 1, the guest side 2; all access to game is synchronized on the room. */
+    private final class Room {
+        final int id;
+        final String kind, size;     // "dots", "3 3" / "quoridor", "9"
+        final String hostName;
+        final Session[] seats = new Session[3];
+        Game game;                   // null until the guest joins and after the game ended
+
+        Room(int id, String kind, String size, Session host) {
+            this.id = id;
+            this.kind = kind;
+            this.size = size;
+            this.hostName = host.name;
+            seats[1] = host;
+        }
+
+        Session opponent(int side) { return seats[3 - side]; }
+    }
+
+    private final class Session implements Runnable {
+        private final Socket socket;
+        private InputStream in;
+        private OutputStream out;
+        private final byte[] line = new byte[MAX_LINE];
+        private String name;
+        private Game game;           // own game (PLAY)
+        private volatile Room room;  // hosted or joined room; cleared by the opponent's thread when the game ends
+        private int side;
+
+        Session(Socket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (idleMillis > 0) socket.setSoTimeout(idleMillis);
+                socket.setTcpNoDelay(true);
+                in = new BufferedInputStream(socket.getInputStream(), 512);
+                out = new BufferedOutputStream(socket.getOutputStream(), 2048);
+                send("HELLO CS611 Game Hub; HELP lists the commands");
+                flush();
+                String cmd;
+                while ((cmd = readLine()) != null) {
+                    if (!handle(cmd.trim())) break;
+                    flush();
+                }
+            } catch (IOException e) {
+                if (out != null) quietly("ERR " + e.getMessage());
+            } finally {
+                leave();
+                open.decrementAndGet();
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // already closed
+                }
+            }
+        }
+
+        /* One client line; false to disconnect. */
+        private boolean handle(String cmd) throws IOException {
+            String[] w = cmd.split("\\s+");
+            String word = w[0].toUpperCase();
+            if (word.equals("BYE")) {
+                result(CommandResult.Status.QUIT);
+                flush();
+                return false;
+            }
+            if (word.equals("LEAVE")) {
+                if (game == null && room == null) {
+                    refuse("Not in a game.");
+                    return true;
+                }
+                leave();
+                result(CommandResult.Status.QUIT);
+                return true;
+            }
+            if (info(word)) return true;
+            if (room != null) play(cmd);
+            else if (game != null) playAlone(cmd);
+            else lobby(word, w);
+            return true;
+        }
+
+        /* Commands answered in the lobby and in games alike; false if word is not one of them. */
+        private boolean info(String word) throws IOException {
+            switch (word) {
+                case "ROOMS":
+                    for (Room r : waiting.values()) send("MSG " + r.id + " " + r.kind + " " + r.size + " " + r.hostName);
+                    result(CommandResult.Status.INFO);
+                    return true;
+                case "STATS":
+                    send("MSG sessions=" + open.get() + " games=" + games.get() + " rooms-waiting=" + waiting.size());
+                    result(CommandResult.Status.INFO);
+                    return true;
+                case "HELP":
+                    send("MSG PLAY slide <rows> <cols> <seed> | PLAY dots <rows> <cols> <nameA> <nameB> | PLAY quoridor <size> <nameA> <nameB>");
+                    send("MSG HOST dots <rows> <cols> <name> | HOST quoridor <size> <name> | JOIN <room> <name> | ROOMS");
+                    send("MSG in a game: the game's own commands, LEAVE to stop; STATS; BYE to disconnect");
+                    result(CommandResult.Status.INFO);
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void lobby(String word, String[] w) throws IOException {
+            switch (word) {
+                case "PLAY":
+                    try {
+                        game = Game.create(String.join(" ", Arrays.copyOfRange(w, 1, w.length)));
+                    } catch (RuntimeException e) {   // the session stays up whatever the spec was
+                        refuse(e.getMessage() != null ? e.getMessage() : e.toString());
+                        return;
+                    }
+                    games.incrementAndGet();
+                    board(game);
+                    result(CommandResult.Status.INFO);
+                    return;
+                case "HOST":
+                    host(w);
+                    return;
+                case "JOIN":
+                    join(w);
+                    return;
+                default:
+                    refuse("Unknown command; try HELP.");
+            }
+        }
+
+        private void host(String[] w) throws IOException {
+            boolean dots = w.length == 5 && w[1].equalsIgnoreCase("dots");
+            if (!dots && !(w.length == 4 && w[1].equalsIgnoreCase("quoridor"))) {
+                refuse("HOST dots <rows> <cols> <name> or HOST quoridor <size> <name>");
+                return;
+            }
+            String kind = w[1].toLowerCase(), size = dots ? w[2] + " " + w[3] : w[2];
+            try {
+                Game.create(kind + " " + size + " A B");   // size check before anyone waits for it
+            } catch (RuntimeException e) {   // the session stays up whatever the spec was
+                refuse(e.getMessage() != null ? e.getMessage() : e.toString());
+                return;
+            }
+            name = w[w.length - 1];
+            side = 1;
+            room = new Room(nextRoom.incrementAndGet(), kind, size, this);
+            waiting.put(room.id, room);
+            send("ROOM " + room.id);
+            result(CommandResult.Status.INFO);
+        }
+
+        private void join(String[] w) throws IOException {
+            Room r;
+            try {
+                r = w.length == 3 ? waiting.remove(Integer.parseInt(w[1])) : null;
+            } catch (NumberFormatException e) {
+                r = null;
+            }
+            if (r == null) {
+                refuse("JOIN <room> <name> with a room from ROOMS.");
+                return;
+            }
+            Session host;
+            String start;
+            synchronized (r) {
+                if (r.seats[1] == null) {   // the host left while we were joining
+                    refuse("Room " + r.id + " was closed.");
+                    return;
+                }
+                if (r.hostName.equals(w[2])) {
+                    waiting.put(r.id, r);
+                    refuse("Pick a name other than " + r.hostName + ".");
+                    return;
+                }
+                name = w[2];
+                side = 2;
+                room = r;
+                r.seats[2] = this;
+                r.game = Game.create(r.kind + " " + r.size + " " + r.hostName + " " + name);
+                games.incrementAndGet();
+                host = r.seats[1];
+                start = "START " + r.hostName + " " + name + "\n" + boardLines(r.game) + "TURN " + r.seats[r.game.currentSide()].name;
+            }
+            host.quietly(start);
+            quietly(start);
+            result(CommandResult.Status.INFO);
+        }
+
+        /*
+         * Command in a room: only from the player to move; the other player sees the move and the new board.
+         * Pushes are built under the room lock and written after it, so a client that stops reading cannot hold the room.
+         */
+        private void play(String cmd) throws IOException {
+            Room r = room;
+            CommandResult res;
+            Session other = null;
+            String push = null, update = null;
+            synchronized (r) {
+                if (r.game == null) {
+                    refuse(r.seats[2] == null ? "Waiting for an opponent (room " + r.id + ")." : "The game is over.");
+                    return;
+                }
+                if (r.game.currentSide() != side) {
+                    refuse("Not your turn.");
+                    return;
+                }
+                res = r.game.apply(cmd);
+                if (res.status == CommandResult.Status.QUIT) {
+                    other = r.opponent(side);
+                    push = closeRoom(r, name + " left the game.");
+                } else if (res.accepted()) {
+                    update = boardLines(r.game) + messageLines(res.message)
+                            + (res.status == CommandResult.Status.FINISHED ? "END" : "TURN " + r.seats[r.game.currentSide()].name);
+                    other = r.opponent(side);
+                    push = "MOVE " + name + " " + cmd + "\n" + update;
+                    if (res.status == CommandResult.Status.FINISHED) end(r);
+                }
+            }
+            if (other != null) other.quietly(push);
+            if (res.status == CommandResult.Status.QUIT) send("END");
+            else if (update != null) quietly(update);
+            else message(res.message);
+            result(res.status);
+        }
+
+        private void playAlone(String cmd) throws IOException {
+            CommandResult res = game.apply(cmd);
+            message(res.message);
+            if (res.accepted()) board(game);
+            if (res.ended()) {
+                game = null;
+                games.decrementAndGet();
+                send("END");
+            }
+            result(res.status);
+        }
+
+        /* Ends whatever this session is in; the opponent in a room is told and goes back to the lobby. */
+        private void leave() {
+            if (game != null) {
+                game = null;
+                games.decrementAndGet();
+            }
+            Room r = room;
+            if (r == null) return;
+            Session other = null;
+            String push = null;
+            synchronized (r) {
+                waiting.remove(r.id, r);
+                if (r.game != null) {
+                    other = r.opponent(side);
+                    push = closeRoom(r, name + " left the game.");
+                } else {
+                    r.seats[side] = null;
+                    room = null;
+                }
+            }
+            if (other != null) other.quietly(push);
+        }
+
+        /* Ends the room's game; returns the notice for the opponent, to be pushed once the room lock is released. */
+        private String closeRoom(Room r, String why) {
+            end(r);
+            return "MSG " + why + "\nEND";
+        }
+
+        private void end(Room r) {
+            r.game = null;
+            games.decrementAndGet();
+            for (int s = 1; s <= 2; s++) if (r.seats[s] != null) r.seats[s].room = null;
+        }
+
+        private String boardLines(Game g) {
+            StringBuilder sb = new StringBuilder();
+            for (String l : g.state().split("\n")) sb.append("BOARD ").append(l).append('\n');
+            return sb.toString();
+        }
+
+        private String messageLines(String message) {
+            if (message.isEmpty()) return "";
+            StringBuilder sb = new StringBuilder();
+            for (String l : message.split("\n")) sb.append("MSG ").append(l).append('\n');
+            return sb.toString();
+        }
+
+        private void board(Game g) throws IOException { write(boardLines(g)); }
+        private void message(String message) throws IOException { write(messageLines(message)); }
+        private void refuse(String why) throws IOException {
+            send("MSG " + why);
+            result(CommandResult.Status.REJECTED);
+        }
+        private void result(CommandResult.Status status) throws IOException { send("RESULT " + status); }
+        private void send(String line) throws IOException { write(line + "\n"); }
+
+        private synchronized void write(String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        private synchronized void flush() throws IOException { out.flush(); }
+
+        /* Pushes lines to this session from another session's thread; a dead connection is cleaned up by its own thread. */
+        private synchronized void quietly(String lines) {
+            try {
+                out.write((lines + "\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            } catch (IOException e) {
+                // this session's reader sees the broken connection and leaves
+            }
+        }
+
+        /* UTF-8 line without its terminator, null at end of stream; lines longer than MAX_LINE bytes end the session. */
+        private String readLine() throws IOException {
+            int n = 0;
+            while (true) {
+                int b = in.read();
+                if (b < 0) return n == 0 ? null : text(n);
+                if (b == '\n') return text(n);
+                if (n == line.length) throw new IOException("Line longer than " + MAX_LINE + " bytes.");
+                line[n++] = (byte) b;
+            }
+        }
+
+        private String text(int n) {
+            if (n > 0 && line[n - 1] == '\r') n--;
+            return new String(line, 0, n, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package common.gameUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.function.Supplier;
+
+/**
+ * Writes a game session as a compact binary move log (read back by GameRecording).
+ * - Header: magic, version, game kind, rows, cols, snapshot interval K, player names
+ * - Body: start snapshot, then one varint per move, stored as code + 1 (1-2 bytes: blank direction, edge index,
+ *   pawn cell / wall slot); after every K-th move a snapshot of the position follows, so a replay can seek
+ *   without starting over
+ * - Trailer (written by close): a 0 byte ending the moves, offsets of all snapshots and the move count;
+ *   a log without it (the game crashed) is still readable, the reader then scans it once
+ * Recording never interrupts a game: the first I/O error is reported and recording stops.
+ */
+public final class GameRecorder implements AutoCloseable {
+    public static final int SLIDE_PUZZLE = 1, DOTS_AND_BOXES = 2, QUORIDOR = 3;
+    public static final String DIR = "recordings";
+    public static final int DEFAULT_INTERVAL = 32;
+
+    static final int MAGIC = 0x47524543;     // "GREC"
+    static final int TRAILER = 0x47454E44;   // "GEND"
+    static final int VERSION = 1;
+
+    private final Path file;
+    private final int interval;
+    private DataOutputStream out;            // null once closed or failed
+    private long[] snapshots = new long[16];
+    private int snapshotCount, moves;
+
+    public GameRecorder(Path file, int game, int rows, int cols, String[] players, int interval, byte[] start)
+            throws IOException {
+        if (interval < 1) throw new IllegalArgumentException("Snapshot interval must be at least 1.");
+        this.file = file;
+        this.interval = interval;
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 12));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(game);
+        out.writeShort(rows);
+        out.writeShort(cols);
+        out.writeShort(interval);
+        out.writeByte(players.length);
+        for (String p : players) {
+            byte[] utf = p.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(Math.min(utf.length, 0xFFFF));
+            out.write(utf, 0, Math.min(utf.length, 0xFFFF));
+        }
+        snapshot(start);
+        out.flush();
+    }
+
+    /** Recorder for a new session in DIR, or null (with a message) if the file cannot be created. */
+    public static GameRecorder start(int game, int rows, int cols, String[] players, byte[] start) {
+        String name = kindName(game) + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".rec";
+        try {
+            return new GameRecorder(Paths.get(DIR, name), game, rows, cols, players, DEFAULT_INTERVAL, start);
+        } catch (IOException e) {
+            System.out.println("Recording disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    static String kindName(int game) {
+        switch (game) {
+            case SLIDE_PUZZLE: return "slide";
+            case DOTS_AND_BOXES: return "dots";
+            case QUORIDOR: return "quoridor";
+            default: return "game" + game;
+        }
+    }
+
+    public Path file() { return file; }
+    public int moves() { return moves; }
+
+    /** Appends a move; snapshot supplies the position after it when a snapshot is due. */
+    public void move(int code, Supplier<byte[]> snapshot) {
+        if (out == null) return;
+        try {
+            Varint.write(out, code + 1);
+            if (++moves % interval == 0) {
+                snapshot(snapshot.get());
+                out.flush();
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void snapshot(byte[] data) throws IOException {
+        if (snapshotCount == snapshots.length) snapshots = Arrays.copyOf(snapshots, snapshotCount * 2);
+        snapshots[snapshotCount++] = out.size();
+        Varint.write(out, data.length);
+        out.write(data);
+    }
+
+    /** Writes the trailer and closes the file. */
+    @Override
+    public void close() {
+        if (out == null) return;
+        try {
+            out.writeByte(0);
+            for (int i = 0; i < snapshotCount; i++) out.writeLong(snapshots[i]);
+            out.writeInt(moves);
+            out.writeInt(snapshotCount);
+            out.writeInt(TRAILER);
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+        out = null;
+    }
+
+    private void fail(IOException e) {
+        System.out.println("Recording stopped: " + e.getMessage());
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // already failing
+        }
+        out = null;
+    }
+}
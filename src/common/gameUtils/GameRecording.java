@@ -0,0 +1,162 @@
+package common.gameUtils;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read side of a GameRecorder log, memory-mapped.
+ * - The snapshot table comes from the trailer, or from one scan if the log was never closed
+ * - seek(n) restores the last snapshot at or before move n and replays at most K - 1 moves on top of it,
+ *   so stepping backwards costs the same as stepping forwards
+ */
+public final class GameRecording {
+    private final Path file;
+    private final MappedByteBuffer map;
+    private final int game, rows, cols, interval;
+    private final String[] players;
+    private long[] snapshots;
+    private int snapshotCount, moves;
+
+    private GameRecording(Path file, MappedByteBuffer map) throws IOException {
+        this.file = file;
+        this.map = map;
+        try {
+            if (map.getInt() != GameRecorder.MAGIC || map.get() != GameRecorder.VERSION)
+                throw new IOException("Not a game recording: " + file);
+            game = map.get();
+            rows = map.getShort();
+            cols = map.getShort();
+            interval = map.getShort();
+            players = new String[map.get()];
+            for (int i = 0; i < players.length; i++) players[i] = readUtf(map);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated game recording: " + file);
+        }
+        if (interval < 1) throw new IOException("Corrupt game recording: " + file);
+        if (!readTrailer()) scan(map.position());
+        if (snapshotCount == 0) throw new IOException("Empty game recording: " + file);
+    }
+
+    public static GameRecording open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE) throw new IOException("Recording too large: " + file);
+            return new GameRecording(file, ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /** Recordings in GameRecorder.DIR, oldest first (names start with a timestamp per game kind). */
+    public static List<Path> list() throws IOException {
+        List<Path> files = new ArrayList<>();
+        Path dir = Paths.get(GameRecorder.DIR);
+        if (!Files.isDirectory(dir)) return files;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.rec")) {
+            for (Path p : ds) files.add(p);
+        }
+        Collections.sort(files, (a, b) -> {
+            int byTime = stamp(a).compareTo(stamp(b));
+            return byTime != 0 ? byTime : a.compareTo(b);
+        });
+        return files;
+    }
+
+    private static String stamp(Path p) {
+        String name = p.getFileName().toString();
+        int dash = name.indexOf('-');
+        return dash < 0 ? name : name.substring(dash + 1);
+    }
+
+    public Path file() { return file; }
+    public int game() { return game; }
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int interval() { return interval; }
+    public int moves() { return moves; }
+    public String[] players() { return players.clone(); }
+
+    /** Puts view at the position after move n (0 = start); returns the code of move n, or -1 for n = 0. */
+    public int seek(int n, ReplayView view) {
+        if (n < 0 || n > moves) throw new IllegalArgumentException("Move " + n + " is outside 0.." + moves);
+        int s = Math.min(n / interval, snapshotCount - 1);
+        ByteBuffer in = map.duplicate();
+        in.position((int) snapshots[s]);
+        view.restore(readBlock(in));
+        int last = -1;
+        for (int i = s * interval + 1; i <= n; i++) {
+            last = Varint.read(in) - 1;
+            view.apply(last);
+            if (i % interval == 0 && i < n) skipBlock(in);
+        }
+        return last;
+    }
+
+    private static byte[] readBlock(ByteBuffer in) {
+        byte[] data = new byte[Varint.read(in)];
+        in.get(data);
+        return data;
+    }
+
+    private static void skipBlock(ByteBuffer in) {
+        int len = Varint.read(in);
+        in.position(in.position() + len);
+    }
+
+    private static String readUtf(ByteBuffer in) {
+        byte[] utf = new byte[in.getShort() & 0xFFFF];
+        in.get(utf);
+        return new String(utf, StandardCharsets.UTF_8);
+    }
+
+    /* Trailer: snapshot offsets (long each), move count, snapshot count, TRAILER magic. */
+    private boolean readTrailer() {
+        int size = map.limit(), body = map.position();
+        if (size - body < 12 || map.getInt(size - 4) != GameRecorder.TRAILER) return false;
+        int count = map.getInt(size - 8), total = map.getInt(size - 12);
+        long table = size - 12 - 8L * count;
+        if (count < 1 || total < 0 || table < body || count != total / interval + 1) return false;
+        snapshots = new long[count];
+        for (int i = 0; i < count; i++) {
+            snapshots[i] = map.getLong((int) table + 8 * i);
+            if (snapshots[i] < body || snapshots[i] >= table) return false;
+        }
+        snapshotCount = count;
+        moves = total;
+        return true;
+    }
+
+    /* Rebuilds the snapshot table from the log itself, up to the end marker; a torn last entry is ignored. */
+    private void scan(int pos) {
+        snapshots = new long[16];
+        ByteBuffer in = map.duplicate();
+        in.position(pos);
+        try {
+            long at = in.position();
+            skipBlock(in);
+            snapshots[snapshotCount++] = at;
+            while (in.hasRemaining()) {
+                if (Varint.read(in) == 0) break;
+                moves++;
+                if (moves % interval == 0) {
+                    at = in.position();
+                    skipBlock(in);
+                    if (snapshotCount == snapshots.length) snapshots = Arrays.copyOf(snapshots, snapshotCount * 2);
+                    snapshots[snapshotCount++] = at;
+                }
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            // torn tail: everything read so far is usable
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package common.gameUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Save slot for one in-progress game, rewritten after every move so a quit (or crash) can be resumed.
+ * - Header: magic, version, game kind (GameRecorder constants), rows, cols, saved-at time, elapsed millis,
+ *   move count, player names; then the game's state bytes (side to move + board snapshot) and a CRC32
+ * - Each save goes to a side file that is then renamed over the slot (ATOMIC_MOVE), so a slot is always
+ *   either the previous or the new save; there is no fsync per move
+ * - The buffer is reused, so a checkpoint is one small write plus a rename
+ * - list() reads only the headers, never the state
+ * Like recording, saving never interrupts a game: the first I/O error is reported and saving stops.
+ */
+public final class GameSave {
+    public static final String DIR = "saves";
+
+    static final int MAGIC = 0x47534156;     // "GSAV"
+    static final int VERSION = 1;
+
+    /** Header of a save, as listed by the resume menu. */
+    public static final class Info {
+        public final Path file;
+        public final int game, rows, cols, moves;
+        public final long savedAt, elapsedMillis;
+        private final String[] players;
+
+        Info(Path file, int game, int rows, int cols, long savedAt, long elapsedMillis, int moves, String[] players) {
+            this.file = file;
+            this.game = game;
+            this.rows = rows;
+            this.cols = cols;
+            this.savedAt = savedAt;
+            this.elapsedMillis = elapsedMillis;
+            this.moves = moves;
+            this.players = players;
+        }
+
+        public String[] players() { return players.clone(); }
+    }
+
+    private final Path file, side;
+    private final int game, rows, cols;
+    private final byte[][] names;
+    private ByteBuffer buf = ByteBuffer.allocate(256);
+    private final CRC32 crc = new CRC32();
+    private boolean failed;
+
+    public GameSave(Path file, int game, int rows, int cols, String[] players) {
+        this.file = file;
+        this.side = file.resolveSibling(file.getFileName() + ".tmp");
+        this.game = game;
+        this.rows = rows;
+        this.cols = cols;
+        names = new byte[players.length][];
+        for (int i = 0; i < players.length; i++) {
+            byte[] utf = players[i].getBytes(StandardCharsets.UTF_8);
+            names[i] = utf.length <= 0xFFFF ? utf : Arrays.copyOf(utf, 0xFFFF);
+        }
+    }
+
+    /** New slot in DIR for a game that has not been saved before. */
+    public static GameSave create(int game, int rows, int cols, String[] players) {
+        String name = GameRecorder.kindName(game) + "-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + ".sav";
+        return new GameSave(Paths.get(DIR, name), game, rows, cols, players);
+    }
+
+    /** Keeps saving a resumed game into the slot it came from. */
+    public static GameSave reopen(Info info) {
+        return new GameSave(info.file, info.game, info.rows, info.cols, info.players);
+    }
+
+    public Path file() { return file; }
+
+    /** Replaces the slot with the given state; false if saving failed now or earlier. */
+    public boolean save(byte[] state, long elapsedMillis, int moves) {
+        if (failed) return false;
+        int size = 4 + 1 + 1 + 2 + 2 + 8 + 8 + 4 + 1 + 4 + state.length + 4;
+        for (byte[] n : names) size += 2 + n.length;
+        if (buf.capacity() < size) buf = ByteBuffer.allocate(Math.max(size, 2 * buf.capacity()));
+        buf.clear();
+        buf.putInt(MAGIC).put((byte) VERSION).put((byte) game).putShort((short) rows).putShort((short) cols)
+                .putLong(System.currentTimeMillis()).putLong(elapsedMillis).putInt(moves).put((byte) names.length);
+        for (byte[] n : names) buf.putShort((short) n.length).put(n);
+        buf.putInt(state.length).put(state);
+        crc.reset();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue()).flip();
+        try {
+            try (FileChannel ch = openSide()) {
+                while (buf.hasRemaining()) ch.write(buf);
+            }
+            Files.move(side, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            System.out.println("Saving stopped: " + e.getMessage());
+            failed = true;
+            return false;
+        }
+    }
+
+    private FileChannel openSide() throws IOException {
+        try {
+            return FileChannel.open(side, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            Path dir = file.toAbsolutePath().getParent();
+            if (dir == null || Files.isDirectory(dir)) throw e;
+            Files.createDirectories(dir);   // first save in a fresh working directory
+            return FileChannel.open(side, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+    }
+
+    /** Removes the slot (the game ended, nothing to resume). */
+    public void delete() {
+        try {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(side);
+        } catch (IOException e) {
+            System.out.println("Could not remove save " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Headers of all saves in DIR, most recent first; unreadable files are skipped. */
+    public static List<Info> list() throws IOException {
+        List<Info> infos = new ArrayList<>();
+        Path dir = Paths.get(DIR);
+        if (!Files.isDirectory(dir)) return infos;
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*.sav")) {
+            for (Path p : ds) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(p), 256))) {
+                    infos.add(readHeader(p, in));
+                } catch (IOException e) {
+                    // damaged or not a save: not offered for resuming
+                }
+            }
+        }
+        Collections.sort(infos, (a, b) -> Long.compare(b.savedAt, a.savedAt));
+        return infos;
+    }
+
+    private static Info readHeader(Path file, DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) throw new IOException("Not a game save: " + file);
+        int game = in.readUnsignedByte(), rows = in.readUnsignedShort(), cols = in.readUnsignedShort();
+        long savedAt = in.readLong(), elapsed = in.readLong();
+        int moves = in.readInt();
+        String[] players = new String[in.readUnsignedByte()];
+        for (int i = 0; i < players.length; i++) {
+            byte[] utf = new byte[in.readUnsignedShort()];
+            in.readFully(utf);
+            players[i] = new String(utf, StandardCharsets.UTF_8);
+        }
+        return new Info(file, game, rows, cols, savedAt, elapsed, moves, players);
+    }
+
+    /** Game state of a save (as passed to save), after checking its header and CRC. */
+    public static byte[] load(Info info) throws IOException {
+        byte[] data = Files.readAllBytes(info.file);
+        if (data.length < 4) throw new IOException("Truncated game save: " + info.file);
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if (ByteBuffer.wrap(data).getInt(data.length - 4) != (int) crc.getValue()) throw new IOException("Damaged game save: " + info.file);
+        try (DataInputStream header = new DataInputStream(new ByteArrayInputStream(data))) {
+            Info check = readHeader(info.file, header);
+            if (check.game != info.game || check.rows != info.rows || check.cols != info.cols)
+                throw new IOException("Game save changed while loading: " + info.file);
+            int length = header.readInt();
+            if (length < 0 || length != header.available() - 4) throw new IOException("Damaged game save: " + info.file);
+            byte[] state = new byte[length];
+            header.readFully(state);
+            return state;
+        } catch (EOFException e) {
+            throw new IOException("Truncated game save: " + info.file);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package common.gameUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * In-memory leaderboards, filled once from the score log and then updated per result.
+ * - Per game: the fastest TOP results in a sorted array (insert is a binary search plus a short shift)
+ * - Per game and overall: win counts in a TreeSet ordered by wins, so the top k is a walk from the front
+ *   and an update is one remove + add (O(log n))
+ * - Per player: games played, wins and best time per game in a HashMap
+ */
+public final class Leaderboard {
+    public static final int TOP = 10;
+
+    /** Totals for one name (a player, or the pair of names of a Dots and Boxes game). */
+    public static final class PlayerStats {
+        public final String name;
+        private int played, wins;
+        private final Map<String, Long> best = new HashMap<>();
+
+        PlayerStats(String name) { this.name = name; }
+
+        public int played() { return played; }
+        public int wins() { return wins; }
+        /** Fastest recorded time per game, in millis. */
+        public Map<String, Long> bestTimes() { return Collections.unmodifiableMap(best); }
+    }
+
+    /** Wins of one player; immutable while it sits in a TreeSet. */
+    public static final class WinCount {
+        public final String name;
+        public final int wins;
+
+        WinCount(String name, int wins) {
+            this.name = name;
+            this.wins = wins;
+        }
+    }
+
+    private static final class GameBoard {
+        final ScoreRecord[] fastest = new ScoreRecord[TOP];
+        int size;
+        final Map<String, WinCount> wins = new HashMap<>();
+        final TreeSet<WinCount> ranking = new TreeSet<>(Leaderboard::byWins);
+    }
+
+    private final Map<String, GameBoard> games = new HashMap<>();
+    private final Map<String, PlayerStats> players = new HashMap<>();
+    private final GameBoard overall = new GameBoard();
+    private long results;
+
+    /** Adds one result to every structure. */
+    public synchronized void add(ScoreRecord r) {
+        results++;
+        GameBoard g = games.computeIfAbsent(r.game, k -> new GameBoard());
+        insertFastest(g, r);
+
+        PlayerStats p = players.computeIfAbsent(r.player, PlayerStats::new);
+        p.played++;
+        Long old = p.best.get(r.game);
+        if (old == null || r.millis < old) p.best.put(r.game, r.millis);
+
+        if (r.winner != null) {
+            PlayerStats w = r.winner.equals(r.player) ? p : players.computeIfAbsent(r.winner, PlayerStats::new);
+            w.wins++;
+            addWin(g, r.winner);
+            addWin(overall, r.winner);
+        }
+    }
+
+    public synchronized long results() { return results; }
+
+    /** Fastest results of a game (at most TOP), best first. */
+    public synchronized List<ScoreRecord> fastest(String game) {
+        GameBoard g = games.get(game);
+        return g == null ? Collections.<ScoreRecord>emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(Arrays.asList(g.fastest).subList(0, g.size)));
+    }
+
+    /** Players with the most wins in a game (null = all games), most first. */
+    public synchronized List<WinCount> mostWins(String game, int k) {
+        GameBoard g = game == null ? overall : games.get(game);
+        List<WinCount> top = new ArrayList<>();
+        if (g == null) return top;
+        for (Iterator<WinCount> it = g.ranking.iterator(); it.hasNext() && top.size() < k; ) top.add(it.next());
+        return top;
+    }
+
+    /** Stats for a name, or null if it never played or won. */
+    public synchronized PlayerStats stats(String player) { return players.get(player); }
+
+    /* Sorted by time; equal times keep the earlier result first. */
+    private static void insertFastest(GameBoard g, ScoreRecord r) {
+        if (g.size == TOP && r.millis >= g.fastest[TOP - 1].millis) return;
+        int lo = 0, hi = g.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (g.fastest[mid].millis <= r.millis) lo = mid + 1; else hi = mid;
+        }
+        int moved = Math.min(g.size, TOP - 1) - lo;
+        if (moved > 0) System.arraycopy(g.fastest, lo, g.fastest, lo + 1, moved);
+        g.fastest[lo] = r;
+        if (g.size < TOP) g.size++;
+    }
+
+    private static void addWin(GameBoard g, String name) {
+        WinCount old = g.wins.get(name);
+        if (old != null) g.ranking.remove(old);
+        WinCount now = new WinCount(name, old == null ? 1 : old.wins + 1);
+        g.wins.put(name, now);
+        g.ranking.add(now);
+    }
+
+    private static int byWins(WinCount a, WinCount b) {
+        if (a.wins != b.wins) return Integer.compare(b.wins, a.wins);
+        return a.name.compareTo(b.name);
+    }
+}
@@ -0,0 +1,15 @@
+package common.gameUtils;
+
+/** A game's side of a replay: rebuilds positions from recorded snapshots and moves. */
+public interface ReplayView {
+    /** Replaces the position with a snapshot taken by the game while recording. */
+    void restore(byte[] snapshot);
+
+    /** Plays one recorded move code. */
+    void apply(int move);
+
+    /** Move code in the game's command syntax. */
+    String describe(int move);
+
+    String render();
+}
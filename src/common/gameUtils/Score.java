@@ -1,37 +1,223 @@
 package common.gameUtils;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Saved results, backed by the binary ScoreLog (scores.bin + scores.bin.idx).
+ * An old scores.txt is imported once, then renamed to scores.txt.imported.
+ * The log is read once at startup into a Leaderboard, which every saveScore then updates in place.
+ * Results go to disk through a background ScoreWriter, so saveScore never waits on file I/O.
+ * Every Score on the same file in one process shares the log, writer thread and leaderboard.
+ */
 public class Score {
-    private static final String SCORE_FILE = "scores.txt";
+    private static final String SCORE_FILE = "scores.bin";
+    private static final String LEGACY_FILE = "scores.txt";
+    private static final String[] GAMES = {"Slide Puzzle", "Dots and Boxes", "Quoridor"};
+    private static final String ROW = "%-20s %-20s %-12s %-15s%n";
 
-    /* Saves one result row to file */
-    public void saveScore(String player, String game, String timer, String winner) {
-        try (FileWriter fw = new FileWriter(SCORE_FILE, true)) {
-            fw.write(String.format("%-20s %-20s %-12s %-15s%n", player, game, timer, winner));
-        } catch (IOException e) {
-            System.out.println("Error saving score: " + e.getMessage());
+    /* One log, writer and leaderboard per file and process, shared by every Score opened on it */
+    private static final Map<Path, Store> STORES = new HashMap<>();
+
+    private static final class Store {
+        final Path key;
+        final ScoreLog log;
+        final ScoreWriter writer;
+        final Leaderboard leaderboard = new Leaderboard();
+        int users;
+
+        Store(Path key, ScoreLog log) throws IOException {
+            this.key = key;
+            this.log = log;
+            log.forEach(leaderboard::add);
+            writer = new ScoreWriter(log, ScoreWriter.DEFAULT_CAPACITY, false);
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "score-flush"));
+        }
+    }
+
+    private final Store store;   // null if the log could not be opened
+    private final ScoreLog log;
+    private final ScoreWriter writer;
+    private final Leaderboard leaderboard;
+    private boolean closed;
+
+    public Score() { this(Paths.get(SCORE_FILE), Paths.get(LEGACY_FILE)); }
+
+    public Score(Path logFile, Path legacyFile) {
+        store = acquire(logFile, legacyFile);
+        log = store == null ? null : store.log;
+        writer = store == null ? null : store.writer;
+        leaderboard = store == null ? new Leaderboard() : store.leaderboard;
+    }
+
+    private static Store acquire(Path logFile, Path legacyFile) {
+        Path key = logFile.toAbsolutePath().normalize();
+        synchronized (STORES) {
+            Store s = STORES.get(key);
+            if (s == null) {
+                try {
+                    ScoreLog log = ScoreLog.open(logFile);
+                    if (log.size() == 0 && Files.exists(legacyFile)) {
+                        int n = log.importText(legacyFile, GAMES);
+                        Files.move(legacyFile, Paths.get(legacyFile + ".imported"), StandardCopyOption.REPLACE_EXISTING);
+                        System.out.println("Imported " + n + " scores from " + legacyFile + ".");
+                    }
+                    s = new Store(key, log);
+                } catch (IOException e) {
+                    System.out.println("Scores unavailable: " + e.getMessage());
+                    return null;
+                }
+                STORES.put(key, s);
+            }
+            s.users++;
+            return s;
+        }
+    }
+
+    /* Saves one result (elapsed time in milliseconds); the file write happens in the background */
+    public void saveScore(String player, String game, long millis, String winner) {
+        if (writer == null) return;
+        ScoreRecord r = new ScoreRecord(player, game, millis, winner, System.currentTimeMillis());
+        leaderboard.add(r);
+        if (!writer.submit(r)) System.out.println("Error saving score: writer queue is full.");
+    }
+
+    /** Background writer (queue depth, write latency), or null if scores are unavailable. */
+    public ScoreWriter writer() { return writer; }
+
+    /** Writes out queued results; the writer stops when the last Score on its log is closed. */
+    public void close() {
+        if (store == null) return;
+        synchronized (STORES) {
+            if (closed) return;
+            closed = true;
+            if (--store.users > 0) {
+                flush();
+                return;
+            }
+            STORES.remove(store.key);
+        }
+        store.writer.close();
+    }
+
+    /* Readers go to the file, so queued results are written out first. */
+    private void flush() {
+        if (writer == null) return;
+        try {
+            writer.flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
     /** Displays saved scores as a formatted table */
     public void showScores() {
-        System.out.println("\n-----------------------------------------------------------------------------");
-        System.out.printf("%-20s %-20s %-12s %-15s%n", "Player", "Game", "Timer", "Winner");
-        System.out.println("-----------------------------------------------------------------------------");
-
-        try (BufferedReader br = new BufferedReader(new FileReader(SCORE_FILE))) {
-            String line;
-            boolean any = false;
-            while ((line = br.readLine()) != null) {
-                System.out.println(line);
-                any = true;
+        flush();
+        printHeader();
+        if (log == null || log.size() == 0) {
+            System.out.println("No records yet.");
+        } else {
+            // one print per chunk instead of per row
+            StringBuilder sb = new StringBuilder(1 << 16);
+            try {
+                log.forEach(r -> {
+                    sb.append(row(r));
+                    if (sb.length() > 60_000) {
+                        System.out.print(sb);
+                        sb.setLength(0);
+                    }
+                });
+            } catch (IOException e) {
+                sb.append("Error reading scores: ").append(e.getMessage()).append('\n');
             }
-            if (!any) System.out.println("No records yet.");
-        } catch (IOException e) {
-            System.out.println("No saved scores yet.");
+            System.out.print(sb);
         }
+        System.out.println("-----------------------------------------------------------------------------\n");
+    }
 
+    /** Displays the results of one game and/or player (null = any), looked up through the index. */
+    public void showScores(String game, String player) {
+        flush();
+        printHeader();
+        List<ScoreRecord> found = null;
+        try {
+            if (log != null) found = log.find(game, player);
+        } catch (IOException e) {
+            System.out.println("Error reading scores: " + e.getMessage());
+        }
+        if (found == null || found.isEmpty()) System.out.println("No records yet.");
+        else {
+            StringBuilder sb = new StringBuilder();
+            for (ScoreRecord r : found) sb.append(row(r));
+            System.out.print(sb);
+        }
         System.out.println("-----------------------------------------------------------------------------\n");
     }
+
+    public static String[] games() { return GAMES.clone(); }
+
+    public Leaderboard leaderboard() { return leaderboard; }
+
+    /** Top TOP fastest results and most wins of one game (null = wins over all games). */
+    public void showLeaderboard(String game) {
+        StringBuilder sb = new StringBuilder();
+        if (game != null) {
+            sb.append("\n=== Top ").append(Leaderboard.TOP).append(" times: ").append(game).append(" ===\n");
+            List<ScoreRecord> fastest = leaderboard.fastest(game);
+            if (fastest.isEmpty()) sb.append("No records yet.\n");
+            for (int i = 0; i < fastest.size(); i++) {
+                ScoreRecord r = fastest.get(i);
+                sb.append(String.format("%2d. %-20s %-12s%n", i + 1, r.player, Timer.formatTime(r.millis / 1000)));
+            }
+        }
+        sb.append("\n=== Most wins: ").append(game == null ? "all games" : game).append(" ===\n");
+        List<Leaderboard.WinCount> wins = leaderboard.mostWins(game, Leaderboard.TOP);
+        if (wins.isEmpty()) sb.append("No records yet.\n");
+        for (int i = 0; i < wins.size(); i++)
+            sb.append(String.format("%2d. %-20s %d%n", i + 1, wins.get(i).name, wins.get(i).wins));
+        System.out.println(sb);
+    }
+
+    /** Games played, wins and best time per game for one name. */
+    public void showPlayerStats(String player) {
+        Leaderboard.PlayerStats s = leaderboard.stats(player);
+        if (s == null) {
+            System.out.println("No records for " + player + ".");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== ").append(s.name).append(" ===\n");
+        sb.append("Played: ").append(s.played()).append(" | Wins: ").append(s.wins()).append('\n');
+        for (String game : GAMES) {
+            Long best = s.bestTimes().get(game);
+            if (best != null) sb.append(String.format("Best %-16s %s%n", game + ":", Timer.formatTime(best / 1000)));
+        }
+        System.out.println(sb);
+    }
+
+    /** Filters by game if the text names one of the games, otherwise by player. */
+    public void showScores(String filter) {
+        for (String game : GAMES)
+            if (game.equalsIgnoreCase(filter)) {
+                showScores(game, null);
+                return;
+            }
+        showScores(null, filter);
+    }
+
+    private static void printHeader() {
+        System.out.println("\n-----------------------------------------------------------------------------");
+        System.out.printf(ROW, "Player", "Game", "Timer", "Winner");
+        System.out.println("-----------------------------------------------------------------------------");
+    }
+
+    private static String row(ScoreRecord r) {
+        return String.format(ROW, r.player, r.game, Timer.formatTime(r.millis / 1000), r.winner == null ? "-" : r.winner);
+    }
 }
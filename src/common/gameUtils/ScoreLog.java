@@ -0,0 +1,384 @@
+package common.gameUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * Binary append-only score log with a side index.
+ * - Log: 8-byte header (magic, version), then records [int length][body][int CRC32 of body]
+ * - Body: NAME tag + UTF-8 string (ids are given out in order of appearance), or
+ *   RESULT tag + player id, game id, winner id (-1 = none), elapsed millis, finish time
+ * - Index (log file + ".idx"): one 16-byte entry per result (game id, player id, log offset),
+ *   so lookups by game/player never read the rest of the log
+ * - Opening scans the log once: a torn or damaged tail is cut off and a stale index is rebuilt
+ */
+public final class ScoreLog {
+    private static final int MAGIC = 0x53434C47;   // "SCLG"
+    private static final int VERSION = 1;
+    private static final int HEADER = 8;
+    private static final byte NAME = 1, RESULT = 2;
+    private static final int RESULT_BODY = 1 + 4 * 3 + 8 * 2;
+    private static final int MAX_BODY = 1 + 2 + 0xFFFF;
+    private static final int INDEX_ENTRY = 16;
+    private static final long LOCK_WAIT_MILLIS = 5000;
+    private static final Pattern TEXT_TIME = Pattern.compile("\\s((\\d+)min )?(\\d+)sec(\\s|$)");
+
+    private final Path file, indexFile;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private long end;        // length of the valid part of the log
+    private int results;
+
+    private ScoreLog(Path file) {
+        this.file = file;
+        this.indexFile = Paths.get(file.toString() + ".idx");
+    }
+
+    /** Opens (or creates) a log; repairs a damaged tail and rebuilds the index if needed. */
+    public static ScoreLog open(Path file) throws IOException {
+        ScoreLog log = new ScoreLog(file);
+        // under the same lock as appends, so a write in progress elsewhere is never mistaken for a torn tail
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            FileLock lock = log.lock(ch);
+            try {
+                if (ch.size() == 0) {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).putInt(VERSION);
+                    header.flip();
+                    while (header.hasRemaining()) ch.write(header);
+                    Files.deleteIfExists(log.indexFile);
+                    log.end = HEADER;
+                } else {
+                    log.load(ch);
+                }
+            } finally {
+                lock.release();
+            }
+        }
+        return log;
+    }
+
+    public int size() { return results; }
+    public Path file() { return file; }
+
+    /* Reads every record once: interns names and collects index entries. */
+    private void load(FileChannel ch) throws IOException {
+        long size = ch.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining() && ch.read(header, header.position()) > 0) { }
+        header.flip();
+        if (size < HEADER || header.getInt() != MAGIC || header.getInt() != VERSION)
+            throw new IOException("Not a score log: " + file);
+        end = scan(ch, HEADER, size, new long[64]);
+        if (end < size) {
+            ch.truncate(end);
+            System.out.println("Score log: dropped " + (size - end) + " damaged bytes at the end of " + file);
+        }
+        if (!Files.exists(indexFile) || Files.size(indexFile) != (long) results * INDEX_ENTRY)
+            writeIndex(scanned, results);
+        scanned = null;
+    }
+
+    private long[] scanned;
+
+    /*
+     * Reads the records in [pos, size): interns names, counts results and (if entries is given) collects their
+     * index entries in 'scanned'. Returns the end of the last valid record.
+     * Reads go through the locked channel: opening and closing another handle on the file would drop
+     * this process's lock (POSIX record locks belong to the process, not the handle).
+     */
+    private long scan(FileChannel ch, long pos, long size, long[] entries) throws IOException {   // entries: (game << 32 | player), offset
+        int found = 0;
+        ByteBuffer buf = ByteBuffer.allocate(1 << 17);   // holds the largest record
+        buf.limit(0);
+        long next = pos;                                 // file offset just past the buffered bytes
+        byte[] body = new byte[64];
+        CRC32 crc = new CRC32();
+        while (size - pos >= 9) {
+            next = fill(ch, buf, next, 4);
+            if (buf.remaining() < 4) break;
+            int len = buf.getInt(buf.position());
+            if (len < 1 || len > MAX_BODY || size - pos < 8L + len) break;
+            next = fill(ch, buf, next, 8 + len);
+            if (buf.remaining() < 8 + len) break;
+            if (body.length < len) body = new byte[Math.max(len, body.length * 2)];
+            buf.getInt();
+            buf.get(body, 0, len);
+            crc.reset();
+            crc.update(body, 0, len);
+            if ((int) crc.getValue() != buf.getInt()) break;
+
+            ByteBuffer b = ByteBuffer.wrap(body, 0, len);
+            byte tag = b.get();
+            if (tag == NAME) {
+                String name = new String(body, 3, b.getShort() & 0xFFFF, StandardCharsets.UTF_8);
+                ids.put(name, names.size());
+                names.add(name);
+            } else if (tag == RESULT && len == RESULT_BODY) {
+                int player = b.getInt(), game = b.getInt(), winner = b.getInt();
+                if (player < 0 || player >= names.size() || game < 0 || game >= names.size()
+                        || winner < -1 || winner >= names.size()) break;
+                if (entries != null) {
+                    if (2 * found + 2 > entries.length) entries = Arrays.copyOf(entries, entries.length * 2);
+                    entries[2 * found] = (long) game << 32 | player;
+                    entries[2 * found + 1] = pos;
+                }
+                found++;
+                results++;
+            } else {
+                break;
+            }
+            pos += 8 + len;
+        }
+        scanned = entries;
+        return pos;
+    }
+
+    /* Tops buf up from the file until it holds at least need bytes (or the file ends); returns the new read offset. */
+    private static long fill(FileChannel ch, ByteBuffer buf, long next, int need) throws IOException {
+        if (buf.remaining() >= need) return next;
+        buf.compact();
+        while (buf.position() < need) {
+            int n = ch.read(buf, next);
+            if (n <= 0) break;
+            next += n;
+        }
+        buf.flip();
+        return next;
+    }
+
+    private void writeIndex(long[] entries, int count) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(count * INDEX_ENTRY);
+        for (int i = 0; i < count; i++)
+            buf.putInt((int) (entries[2 * i] >>> 32)).putInt((int) entries[2 * i]).putLong(entries[2 * i + 1]);
+        buf.flip();
+        Path dir = indexFile.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, "scores", ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (buf.hasRemaining()) ch.write(buf);
+        }
+        Files.move(tmp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void append(ScoreRecord record) throws IOException {
+        appendAll(Collections.singletonList(record), false);
+    }
+
+    /**
+     * Appends records with one write to the log and one to the index (sync forces both to disk).
+     * An exclusive file lock is held throughout, and records that another process appended since are read first,
+     * so several processes can share one log.
+     */
+    public synchronized void appendAll(Collection<ScoreRecord> records, boolean sync) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock = lock(ch);
+            try {
+                catchUp(ch);
+                write(ch, records, sync);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /*
+     * Exclusive lock on the whole log. File locks belong to the JVM, so a second ScoreLog on the same file in this
+     * process gets OverlappingFileLockException instead of blocking; wait for it a little, then give up.
+     */
+    private FileLock lock(FileChannel ch) throws IOException {
+        long deadline = System.currentTimeMillis() + LOCK_WAIT_MILLIS;
+        while (true) {
+            try {
+                return ch.lock();
+            } catch (OverlappingFileLockException e) {
+                if (System.currentTimeMillis() > deadline) throw new IOException("Score log is locked by this process: " + file);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the score log lock.");
+                }
+            }
+        }
+    }
+
+    /* Picks up records written by other processes (and drops a torn tail they left). */
+    private void catchUp(FileChannel ch) throws IOException {
+        long size = ch.size();
+        if (size <= end) return;
+        end = scan(ch, end, size, null);
+        if (end < size) ch.truncate(end);
+    }
+
+    private void write(FileChannel ch, Collection<ScoreRecord> records, boolean sync) throws IOException {
+        List<String> fresh = new ArrayList<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * records.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteBuffer index = ByteBuffer.allocate(records.size() * INDEX_ENTRY);
+        for (ScoreRecord r : records) {
+            int player = idFor(r.player, fresh, out), game = idFor(r.game, fresh, out);
+            int winner = r.winner == null ? -1 : idFor(r.winner, fresh, out);
+            index.putInt(game).putInt(player).putLong(end + out.size());
+            ByteBuffer body = ByteBuffer.allocate(RESULT_BODY);
+            body.put(RESULT).putInt(player).putInt(game).putInt(winner).putLong(r.millis).putLong(r.finishedAt);
+            writeRecord(out, body.array());
+        }
+        ByteBuffer log = ByteBuffer.wrap(bytes.toByteArray());
+        ch.position(end);
+        while (log.hasRemaining()) ch.write(log);
+        if (sync) ch.force(false);
+        end += bytes.size();
+        for (String name : fresh) {
+            ids.put(name, names.size());
+            names.add(name);
+        }
+        // the log is written first: an index that falls behind is rebuilt on the next open
+        index.flip();
+        try (FileChannel idx = FileChannel.open(indexFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            idx.position((long) results * INDEX_ENTRY);
+            while (index.hasRemaining()) idx.write(index);
+            if (sync) idx.force(false);
+        }
+        results += records.size();
+    }
+
+    /* Id of a known name, or a new one whose NAME record is written to out. */
+    private int idFor(String name, List<String> fresh, DataOutputStream out) throws IOException {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        int i = fresh.indexOf(name);
+        if (i >= 0) return names.size() + i;
+        byte[] utf = name.getBytes(StandardCharsets.UTF_8);
+        if (utf.length > 0xFFFF) throw new IllegalArgumentException("Name too long for the score log.");
+        ByteBuffer body = ByteBuffer.allocate(3 + utf.length);
+        body.put(NAME).putShort((short) utf.length).put(utf);
+        writeRecord(out, body.array());
+        fresh.add(name);
+        return names.size() + fresh.size() - 1;
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body, 0, body.length);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /** Every result in the order it was recorded. */
+    public synchronized void forEach(Consumer<ScoreRecord> action) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            in.skipBytes(HEADER);
+            byte[] body = new byte[64];
+            for (long pos = HEADER; pos < end; ) {
+                int len = in.readInt();
+                if (body.length < len) body = new byte[len];
+                in.readFully(body, 0, len);
+                in.readInt();   // checked when the log was opened
+                if (body[0] == RESULT) action.accept(decode(ByteBuffer.wrap(body, 0, len)));
+                pos += 8 + len;
+            }
+        }
+    }
+
+    /** Results for a game and/or player (null matches any), found through the index. */
+    public synchronized List<ScoreRecord> find(String game, String player) throws IOException {
+        List<ScoreRecord> found = new ArrayList<>();
+        Integer g = game == null ? null : ids.get(game), p = player == null ? null : ids.get(player);
+        if ((game != null && g == null) || (player != null && p == null) || results == 0) return found;
+        try (FileChannel idx = FileChannel.open(indexFile, StandardOpenOption.READ);
+             FileChannel log = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = idx.map(FileChannel.MapMode.READ_ONLY, 0, (long) results * INDEX_ENTRY);
+            ByteBuffer record = ByteBuffer.allocate(8 + RESULT_BODY);
+            for (int i = 0; i < results; i++) {
+                int eg = map.getInt(), ep = map.getInt();
+                long offset = map.getLong();
+                if ((g != null && eg != g) || (p != null && ep != p)) continue;
+                record.clear();
+                while (record.hasRemaining() && log.read(record, offset + record.position()) > 0) { }
+                record.flip();
+                if (record.getInt() != RESULT_BODY) throw new IOException("Score index out of date: " + indexFile);
+                found.add(decode(record));
+            }
+        }
+        return found;
+    }
+
+    private ScoreRecord decode(ByteBuffer body) {
+        body.get();   // RESULT tag
+        int player = body.getInt(), game = body.getInt(), winner = body.getInt();
+        long millis = body.getLong(), finishedAt = body.getLong();
+        return new ScoreRecord(names.get(player), names.get(game), millis,
+                winner < 0 ? null : names.get(winner), finishedAt);
+    }
+
+    /**
+     * One-time import of the old fixed-width scores.txt ("%-20s %-20s %-12s %-15s" rows).
+     * Names longer than their column push the rest of the row right; such rows are split at a known game name.
+     * Returns the number of rows imported (rows that cannot be parsed are skipped).
+     */
+    public int importText(Path text, String... games) throws IOException {
+        List<ScoreRecord> rows = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                ScoreRecord r = parseTextRow(line, games);
+                if (r != null) rows.add(r);
+            }
+        }
+        if (!rows.isEmpty()) appendAll(rows, true);
+        return rows.size();
+    }
+
+    static ScoreRecord parseTextRow(String line, String... games) {
+        Matcher m = TEXT_TIME.matcher(line);
+        if (!m.find()) return null;
+        long minutes = m.group(2) == null ? 0 : Long.parseLong(m.group(2));
+        long millis = (minutes * 60 + Long.parseLong(m.group(3))) * 1000;
+        String before = line.substring(0, m.start());
+        String winner = line.substring(m.end()).trim();
+
+        String player = null, game = null;
+        if (before.length() > 21 && before.charAt(20) == ' ') {
+            player = before.substring(0, 20).trim();
+            game = before.substring(21).trim();
+        } else {
+            for (String known : games) {
+                int at = before.lastIndexOf(" " + known);
+                if (at >= 0) {
+                    player = before.substring(0, at).trim();
+                    game = known;
+                    break;
+                }
+            }
+        }
+        if (player == null || player.isEmpty() || game.isEmpty()) return null;
+        return new ScoreRecord(player, game, millis, winner.isEmpty() ? null : winner, 0L);
+    }
+}
@@ -0,0 +1,18 @@
+package common.gameUtils;
+
+/** One finished game as stored in the score log. */
+public final class ScoreRecord {
+    public final String player;     // player name(s) as shown in the score table
+    public final String game;
+    public final long millis;       // elapsed play time
+    public final String winner;
+    public final long finishedAt;   // epoch millis, 0 if unknown (imported rows)
+
+    public ScoreRecord(String player, String game, long millis, String winner, long finishedAt) {
+        this.player = player;
+        this.game = game;
+        this.millis = millis;
+        this.winner = winner;
+        this.finishedAt = finishedAt;
+    }
+}
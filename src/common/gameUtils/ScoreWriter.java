@@ -0,0 +1,116 @@
+package common.gameUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background writer for the score log.
+ * - Game threads only offer to a bounded queue; submit never waits on disk (a full queue drops the record)
+ * - One daemon thread drains the queue and appends everything waiting as one group commit
+ *   (one locked write, optional fsync per batch)
+ * - close() writes whatever is still queued; queue depth and write latency are exposed for monitoring
+ */
+public final class ScoreWriter implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 4096;
+    private static final int MAX_BATCH = 1024;
+    private static final ScoreRecord STOP = new ScoreRecord("", "", 0, null, 0);
+
+    private final ScoreLog log;
+    private final boolean fsync;
+    private final BlockingQueue<ScoreRecord> queue;
+    private final Thread thread;
+    private volatile boolean closed;
+
+    private final AtomicLong submitted = new AtomicLong(), dropped = new AtomicLong();
+    private long processed, written, failed, batches;         // guarded by this
+    private long totalNanos, lastNanos, maxNanos;             // guarded by this
+
+    public ScoreWriter(ScoreLog log, int capacity, boolean fsync) {
+        this.log = log;
+        this.fsync = fsync;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "score-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Queues a record; false if the writer is closed or the queue is full (the record is not saved). */
+    public boolean submit(ScoreRecord r) {
+        if (closed || !queue.offer(r)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    /** Waits until everything submitted so far has been written (or has failed). */
+    public synchronized void flush() throws InterruptedException {
+        long target = submitted.get();
+        while (processed < target && thread.isAlive()) wait(100);
+    }
+
+    /** Writes the remaining records and stops the writer thread. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            queue.put(STOP);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int queueDepth() { return queue.size(); }
+    public long dropped() { return dropped.get(); }
+    public synchronized long written() { return written; }
+    public synchronized long failed() { return failed; }
+    public synchronized long batches() { return batches; }
+    public synchronized long lastWriteMicros() { return lastNanos / 1000; }
+    public synchronized long maxWriteMicros() { return maxNanos / 1000; }
+    public synchronized long averageWriteMicros() { return batches == 0 ? 0 : totalNanos / batches / 1000; }
+
+    private void run() {
+        List<ScoreRecord> batch = new ArrayList<>();
+        boolean stop = false;
+        while (!stop) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                stop = true;
+            }
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+            if (batch.remove(STOP)) stop = true;
+            if (stop) queue.drainTo(batch);
+            if (!batch.isEmpty()) write(batch);
+            batch.clear();
+        }
+    }
+
+    private void write(List<ScoreRecord> batch) {
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            log.appendAll(batch, fsync);
+            ok = true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error saving scores: " + e.getMessage());
+        }
+        long nanos = System.nanoTime() - start;
+        synchronized (this) {
+            batches++;
+            if (ok) written += batch.size(); else failed += batch.size();
+            processed += batch.size();
+            totalNanos += nanos;
+            lastNanos = nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package common.gameUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/* Executor helpers shared by the headless runners. */
+public class ThreadPools {
+    private static final long SMALL_STACK = 256 * 1024;
+
+    /**
+     * One virtual thread per task when the JVM has them (Java 21+), looked up reflectively
+     * so the project still builds for Java 8; otherwise a pool with one thread per core.
+     */
+    public static ExecutorService perTaskExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * Executor for tasks that mostly block on I/O (one per network connection): virtual threads when available,
+     * otherwise a cached pool of platform threads with small stacks, so blocked tasks never queue behind each other.
+     */
+    public static ExecutorService perConnectionExecutor() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(null, r, "connection-" + count.incrementAndGet(), SMALL_STACK);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /** True if perTaskExecutor() hands out virtual threads on this JVM. */
+    public static boolean hasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
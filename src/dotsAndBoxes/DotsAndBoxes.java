@@ -1,41 +1,95 @@
 package dotsAndBoxes;
 
 import common.Board;
+import common.CommandResult;
 import common.Game;
+import common.gameUtils.GameRecorder;
+import common.gameUtils.GameSave;
+import common.gameUtils.ReplayView;
 import common.gameUtils.Score;
 import common.gameUtils.Timer;
 import common.player.Player;
 
+import java.io.IOException;
 import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Scanner;
+import java.util.concurrent.Semaphore;
 
 /*Full interactive Dots and Boxes game.*/
 public class DotsAndBoxes extends Game {
+    private static final long SOLVER_NODE_LIMIT = 20_000_000L;
+    private static final int MAX_SIZE = 30;   // interactive play; DotsAndBoxesSimulation handles bigger boards
+    private static final int HEADLESS_TABLE_LOG2 = 16;   // 1 MB table per analysis instead of 64 MB
+    /* Analyses running at once over all headless games (servers host thousands of them in one JVM) */
+    private static final Semaphore HEADLESS_SOLVES = new Semaphore(Runtime.getRuntime().availableProcessors());
     private DotsAndBoxesBoard board;
-    private static Player p1;
-    private static Player p2;
+    private DotsAndBoxesSolver solver;
+    private Player current;
+    private GameRecorder recorder;      // null when recording is unavailable
+    private GameSave save;              // checkpointed after every move
+    private long startMillis;           // play time so far is now - startMillis
+    private int moves;
+    private boolean finished;
+    private final Player p1;
+    private final Player p2;
+    private boolean headless;           // no solver is kept between analyses, and the table is small
+
+    private DotsAndBoxes(Player p1, Player p2) {
+        this.p1 = p1;
+        this.p2 = p2;
+    }
+
+    /* Headless game (no recording or save), driven through apply; player 1 moves first */
+    public DotsAndBoxes(int rows, int cols, String p1Name, String p2Name) {
+        this(new Player(p1Name, 1), new Player(p2Name, 2));
+        if (rows < 1 || cols < 1 || rows > MAX_SIZE || cols > MAX_SIZE)
+            throw new IllegalArgumentException("Board size must be 1.." + MAX_SIZE + " in each direction.");
+        board = new DotsAndBoxesBoard(rows, cols, p1Name, p2Name);
+        current = p1;
+        headless = true;
+    }
 
     /* Launches Dots and Boxes */
     public static void launchDotsAndBoxes(Scanner sc, Score score) {
         // setup players
         System.out.print("Enter Player 1 name: ");
-        p1 = new Player(sc.nextLine(), 1);
+        Player p1 = new Player(sc.nextLine(), 1);
         System.out.print("Enter Player 2 name: ");
-        p2 = new Player(sc.nextLine(), 2);
-
-        long start = System.currentTimeMillis();
+        Player p2 = new Player(sc.nextLine(), 2);
 
-        Game game = new DotsAndBoxes();
+        DotsAndBoxes game = new DotsAndBoxes(p1, p2);
         game.start();
+        game.finish(score);
+    }
 
-        long end = System.currentTimeMillis();
-        long totalSec = (end - start) / 1000;
-        String timer = Timer.formatTime(totalSec);
+    /* Continues a saved game; throws IllegalArgumentException if the state does not fit the board */
+    public static void resumeDotsAndBoxes(Score score, GameSave.Info info, byte[] state) {
+        String[] names = info.players();
+        DotsAndBoxes game = new DotsAndBoxes(new Player(names[0], 1), new Player(names[1], 2));
+        game.board = new DotsAndBoxesBoard(info.rows, info.cols, names[0], names[1]);
+        if (state.length == 0 || (state[0] != 1 && state[0] != 2)) throw new IllegalArgumentException("No side to move.");
+        game.board.restore(Arrays.copyOfRange(state, 1, state.length));
+        for (int i = 0; i < game.board.boxesOf(1); i++) game.p1.incrementScore();
+        for (int i = 0; i < game.board.boxesOf(2); i++) game.p2.incrementScore();
+        game.save = GameSave.reopen(info);
+        game.play(new Scanner(System.in), state[0] == 2 ? game.p2 : game.p1, info.elapsedMillis, info.moves);
+        game.finish(score);
+    }
 
+    /* Saves the score of a finished game; an aborted one stays in its save slot */
+    private void finish(Score score) {
+        if (!finished) {
+            if (save != null && save.save(snapshot(current.getId()), System.currentTimeMillis() - startMillis, moves))
+                System.out.println("Game saved; continue it with Resume in the main menu.");
+            return;
+        }
+        save.delete();
+        long millis = System.currentTimeMillis() - startMillis;
         String playerNames = p1.getName() + " and " + p2.getName();
         String winner = printWinner();
-        score.saveScore(playerNames, "Dots and Boxes", timer, winner);
-        System.out.println("Game finished in " + timer);
+        score.saveScore(playerNames, "Dots and Boxes", millis, winner);
+        System.out.println("Game finished in " + Timer.formatTime(millis / 1000));
     }
 
     /** Start the game and handle user input loop */
@@ -43,75 +97,203 @@ public class DotsAndBoxes extends Game {
     public void start() {
         Scanner sc = new Scanner(System.in);
 
-        AbstractMap.SimpleEntry<Integer, Integer> dimensions = Board.setupBoardDimensions(sc);
+        AbstractMap.SimpleEntry<Integer, Integer> dimensions = Board.setupBoardDimensions(sc, MAX_SIZE);
         int rows = dimensions.getKey();
         int cols = dimensions.getValue();
 
         // initialize board
         board = new DotsAndBoxesBoard(rows, cols, p1.getName(), p2.getName());
-        Player current = p1;
+        save = GameSave.create(GameRecorder.DOTS_AND_BOXES, rows, cols, new String[] { p1.getName(), p2.getName() });
+        play(sc, p1, 0, 0);
+    }
+
+    /* Game loop from the current board; records every move and checkpoints it to the save slot */
+    private void play(Scanner sc, Player first, long elapsedMillis, int movesSoFar) {
+        int rows = board.rows(), cols = board.cols();
+        solver = null;
+        current = first;
+        moves = movesSoFar;
+        startMillis = System.currentTimeMillis() - elapsedMillis;
+        recorder = GameRecorder.start(GameRecorder.DOTS_AND_BOXES, rows, cols,
+                new String[] { p1.getName(), p2.getName() }, snapshot(current.getId()));
+        checkpoint(current.getId());
         //  print instructions
         int totalPoints = (rows + 1) * (cols + 1);
         System.out.println("Points numbered 1.." + totalPoints + ".");
         System.out.println("Enter two adjacent point numbers per move. Type 'quit' to exit.");
+        System.out.println("Type 'hint' for the best move or 'solve' for the outcome with best play.");
         //  main gameplay loop
         while (!board.isSolved()) {
             board.displayBoard();
             System.out.println(current.getName() + "'s turn:");
-            String input = sc.nextLine().trim();
-            if (input.equalsIgnoreCase("quit")) {
-                System.out.println("Game aborted.");
+            CommandResult result = apply(sc.nextLine());
+            if (result.status == CommandResult.Status.FINISHED) board.displayBoard();
+            if (!result.message.isEmpty()) System.out.println(result.message);
+            if (result.status == CommandResult.Status.QUIT) {
+                closeRecorder();
                 return;
             }
+        }
+        //  when all boxes filled
+        closeRecorder();
+    }
 
-            String[] parts = input.split("\\s+");
-            if (parts.length != 2) {
-                System.out.println("Invalid input.");
-                continue;
-            }
+    /* One line of the game loop: two adjacent point numbers, 'hint', 'solve' or 'quit' */
+    @Override
+    public CommandResult apply(String command) {
+        String input = command.trim();
+        if (input.equalsIgnoreCase("quit")) return CommandResult.quit("Game aborted.");
+        if (board.isSolved()) return CommandResult.rejected("Game is over.");
+
+        if (input.equalsIgnoreCase("hint") || input.equalsIgnoreCase("solve"))
+            return CommandResult.info(analyze(input.equalsIgnoreCase("hint")));
+
+        String[] parts = input.split("\\s+");
+        if (parts.length != 2) return CommandResult.rejected("Invalid input.");
+
+        try {
+            // parse two point numbers
+            int pA = Integer.parseInt(parts[0]);
+            int pB = Integer.parseInt(parts[1]);
+            int edge = board.edgeBetween(pA, pB);
+            // claim the edge and check if common.player scored a box
+            boolean scored = board.claimEdgeByPoints(pA, pB, current);
+            // if no box scored, switch to the other common.player
+            if (!scored) current = (current == p1) ? p2 : p1;
+            record(edge, current.getId());
+            moves++;
+            checkpoint(current.getId());
+        } catch (Exception e) {
+            return CommandResult.rejected("Invalid move: " + e.getMessage());
+        }
+        if (!board.isSolved()) return CommandResult.moved();
+        finished = true;
+        return CommandResult.finished(end());
+    }
+
+    private void checkpoint(int side) {
+        if (save != null) save.save(snapshot(side), System.currentTimeMillis() - startMillis, moves);
+    }
 
-            try {
-                // parse two point numbers
-                int pA = Integer.parseInt(parts[0]);
-                int pB = Integer.parseInt(parts[1]);
-                // claim the edge and check if common.player scored a box
-                boolean scored = board.claimEdgeByPoints(pA, pB, current);
-                // if no box scored, switch to the other common.player
-                if (!scored) current = (current == p1) ? p2 : p1;
-            } catch (Exception e) {
-                System.out.println("Invalid move: " + e.getMessage());
+    /* Recording: move code = edge index; snapshots are the side to move (1/2) followed by the board */
+    private void record(int edge, int side) {
+        if (recorder != null) recorder.move(edge, () -> snapshot(side));
+    }
+
+    private byte[] snapshot(int side) {
+        byte[] b = board.snapshot();
+        byte[] data = new byte[b.length + 1];
+        data[0] = (byte) side;
+        System.arraycopy(b, 0, data, 1, b.length);
+        return data;
+    }
+
+    private void closeRecorder() {
+        if (recorder != null) recorder.close();
+        recorder = null;
+    }
+
+    /* Replay of a recording; describe names the player who drew the edge */
+    public static ReplayView replayView(int rows, int cols, String[] players) {
+        DotsAndBoxesBoard b = new DotsAndBoxesBoard(rows, cols, players[0], players[1]);
+        int[] side = new int[1];
+        return new ReplayView() {
+            @Override public void restore(byte[] snapshot) {
+                side[0] = snapshot[0];
+                b.restore(Arrays.copyOfRange(snapshot, 1, snapshot.length));
             }
+            @Override public void apply(int move) {
+                if (b.claimEdge(move, side[0]) == 0) side[0] = 3 - side[0];
+            }
+            @Override public String describe(int move) {
+                int[] pts = b.edgePoints(move);
+                return players[b.edgeOwner(move) - 1] + " draws " + pts[0] + " " + pts[1];
+            }
+            @Override public String render() {
+                StringBuilder sb = new StringBuilder();
+                try {
+                    b.render(sb);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);   // StringBuilder never throws
+                }
+                return sb.append(players[0]).append(": ").append(b.boxesOf(1)).append(" | ")
+                        .append(players[1]).append(": ").append(b.boxesOf(2)).toString();
+            }
+        };
+    }
+    /* HINT / SOLVE: exact answer within the node budget, otherwise a heuristic suggestion */
+    private String analyze(boolean hint) {
+        if (board.edgeCount() > 64) return "Board too large for the solver (max 64 edges).";
+        if (!headless) {
+            if (solver == null) solver = new DotsAndBoxesSolver(board.rows(), board.cols());
+            return analyze(solver, hint);
+        }
+        HEADLESS_SOLVES.acquireUninterruptibly();
+        try {
+            return analyze(new DotsAndBoxesSolver(board.rows(), board.cols(), HEADLESS_TABLE_LOG2), hint);
+        } finally {
+            HEADLESS_SOLVES.release();
         }
-        //  when all boxes filled
-        end();
     }
+
+    private String analyze(DotsAndBoxesSolver solver, boolean hint) {
+        solver.setNodeLimit(SOLVER_NODE_LIMIT);
+        long mask = board.edgeMask();
+        long start = System.currentTimeMillis();
+        int move = solver.bestMove(mask);
+        long ms = System.currentTimeMillis() - start;
+        if (move < 0) {
+            int[] pts = board.edgePoints(solver.heuristicMove(mask));
+            return "Position too deep to solve within the search budget (" + ms + " ms).\n"
+                    + "Suggested move (heuristic): " + pts[0] + " " + pts[1];
+        }
+        int[] pts = board.edgePoints(move);
+        if (hint) return "Best move: " + pts[0] + " " + pts[1] + " (" + solver.nodes() + " nodes, " + ms + " ms)";
+        Player other = current == p1 ? p2 : p1;
+        int open = board.rows() * board.cols() - p1.getScore() - p2.getScore();
+        int v = solver.lastValue();
+        return "With best play " + current.getName() + " ends with " + (current.getScore() + (open + v) / 2)
+                + " and " + other.getName() + " with " + (other.getScore() + (open - v) / 2)
+                + " (best move " + pts[0] + " " + pts[1] + ", " + solver.nodes() + " nodes, " + ms + " ms)";
+    }
+
+    @Override
+    public int currentSide() { return current == null ? 1 : current.getId(); }
+
     /*Reset the game state */
     @Override public void reset() { board = null; }
-    /*Return simple text summary */
-    @Override public String state() { return "Dots and Boxes finished."; }
-
-    /*Show final scores and winner */
-    private void end() {
-        board.displayBoard();
-        System.out.print("Final Scores:- ");
-        System.out.print(p1.getName() + ": " + p1.getScore());
-        System.out.print(" | ");
-        System.out.println(p2.getName() + ": " + p2.getScore());
+    /*Board and scores as text */
+    @Override
+    public String state() {
+        if (board == null) return "Dots and Boxes not started.";
+        StringBuilder sb = new StringBuilder();
+        try {
+            board.render(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // StringBuilder never throws
+        }
+        return sb.append(p1.getName()).append(": ").append(p1.getScore()).append(" | ")
+                .append(p2.getName()).append(": ").append(p2.getScore()).toString();
+    }
+
+    /*Final scores and winner */
+    private String end() {
+        String scores = "Final Scores:- " + p1.getName() + ": " + p1.getScore() + " | " + p2.getName() + ": " + p2.getScore() + "\n";
         // compare scores
         if (p1.getScore() > p2.getScore()) {
-            System.out.println(p1.getName() + " wins!");
             p1.makeWinner();
+            return scores + p1.getName() + " wins!";
         }
         else if (p2.getScore() > p1.getScore()) {
-            System.out.println(p2.getName() + " wins!");
             p2.makeWinner();
+            return scores + p2.getName() + " wins!";
         }
         else
-            System.out.println("It's a tie!");
+            return scores + "It's a tie!";
     }
 
 
-    static private String printWinner() {
+    private String printWinner() {
         if (p1.isWinner() && p2.isWinner()) {
             return p1.getName() + " and " + p2.getName();
         }
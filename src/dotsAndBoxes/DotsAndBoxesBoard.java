@@ -1,127 +1,321 @@
 package dotsAndBoxes;
 
 import common.Board;
+import common.gameUtils.Varint;
 import common.player.Player;
 
-/** Grid & rules for Dots and Boxes (unchanged logic, now uses DotTile). */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Grid & rules for Dots and Boxes on a bit-packed state.
+ * - Drawn edges and their owners are bits in long[] words (owner bit set = player 2)
+ * - Per-box side counters (byte[]) and a running completed count make moves and isSolved O(1)
+ * - claimEdge/undo never allocate; box labels such as "A1" are only built when rendering
+ * - No per-dot objects (DotTile is a view), so very large boards stay small in memory;
+ *   render() streams rows to any Appendable and can limit itself to a viewport
+ * - Rendering appends precomputed edge segments and writes box numbers from a reused digit buffer;
+ *   displayBoard fills one reused buffer and prints it with a single call
+ * Edge index: horizontal edges first (r * cols + c, r = 0..rows), then vertical (H + r * (cols + 1) + c).
+ */
 public class DotsAndBoxesBoard extends Board<Void> {
     private final int rows, cols;   // number of boxes
-    private final int[][] hEdges;   // 0 free, 1/2 owner id
-    private final int[][] vEdges;
-    private final String[][] boxes; // completed box labels
+    private final int hCount, edgeCount;
+    private final long[] drawn;     // bit per edge
+    private final long[] owner2;    // bit per edge, set if player 2 drew it
+    private final byte[] sides;     // drawn sides per box
+    private final byte[] boxOwner;  // 0 open, 1/2 owner id
+    private final int[] boxSeq;     // n-th box of its owner, for the label
     private final String[] playerSymbols;
     private final int[] playerBoxCount;
-    private final DotTile[][] dots; // ★ use Tile instances
+    private int completed;
+    private int[] history = new int[64];   // claimed edges, for undo
+    private int historySize;
+    private final int cellWidth;    // box label width, grows with the number of boxes
+    private final String[] hSegments;                // edge between two dots, by owner: "   ", "===", "---"
+    private final String blank;                      // cellWidth spaces
+    private final char[] digits = new char[10];      // box number being rendered
+    private final CharBuffer digitView = CharBuffer.wrap(digits);
+    private final StringBuilder frame = new StringBuilder();   // displayBoard's buffer
 
     public DotsAndBoxesBoard(int rows, int cols, String p1Name, String p2Name) {
         this.rows = rows;
         this.cols = cols;
-        this.hEdges = new int[rows + 1][cols];
-        this.vEdges = new int[rows][cols + 1];
-        this.boxes  = new String[rows][cols];
+        this.hCount = (rows + 1) * cols;
+        this.edgeCount = hCount + rows * (cols + 1);
+        this.drawn = new long[(edgeCount + 63) >>> 6];
+        this.owner2 = new long[drawn.length];
+        this.sides = new byte[rows * cols];
+        this.boxOwner = new byte[rows * cols];
+        this.boxSeq = new int[rows * cols];
         this.playerSymbols = new String[3];
         this.playerBoxCount = new int[3];
-        this.dots = new DotTile[rows + 1][cols + 1];
-        for (int r = 0; r <= rows; r++)
-            for (int c = 0; c <= cols; c++)
-                dots[r][c] = new DotTile(r, c);
+        this.cellWidth = Math.max(3, 1 + Integer.toString(rows * cols).length());
+
+        this.blank = repeat(' ', cellWidth);
+        this.hSegments = new String[] { blank, repeat('=', cellWidth), repeat('-', cellWidth) };
 
         playerSymbols[1] = p1Name.substring(0, 1).toUpperCase();
         playerSymbols[2] = p2Name.substring(0, 1).toUpperCase();
     }
 
-    @Override
-    public Void displayBoard() {
-        for (int r = 0; r < rows; r++) {
-            // top edge row
-            for (int c = 0; c < cols; c++) {
-                System.out.print("+");
-                System.out.print(hEdgeString(hEdges[r][c]));
-            }
-            System.out.println("+");
-            // vertical edges + box labels
-            for (int c = 0; c < cols; c++) {
-                System.out.print(vEdgeString(vEdges[r][c]));
-                System.out.print(boxes[r][c] == null ? "   " : String.format("%3s", boxes[r][c]));
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int edgeCount() { return edgeCount; }
+    public int hEdge(int r, int c) { return r * cols + c; }
+    public int vEdge(int r, int c) { return hCount + r * (cols + 1) + c; }
+
+    /** Display view of the dot at (r, c). */
+    public DotTile dotAt(int r, int c) { return new DotTile(r, c); }
+
+    public boolean isDrawn(int edge) { return (drawn[edge >>> 6] >>> edge & 1) != 0; }
+
+    /** 0 if free, else the id (1/2) of the player who drew it. */
+    public int edgeOwner(int edge) { return !isDrawn(edge) ? 0 : (owner2[edge >>> 6] >>> edge & 1) != 0 ? 2 : 1; }
+
+    public int sides(int box) { return sides[box]; }
+    public int boxOwner(int box) { return boxOwner[box]; }
+    public int completedBoxes() { return completed; }
+
+    /** Some undrawn side of the box, or -1 if it is complete. */
+    public int freeSide(int box) {
+        int r = box / cols, c = box % cols;
+        if (!isDrawn(hEdge(r, c))) return hEdge(r, c);
+        if (!isDrawn(hEdge(r + 1, c))) return hEdge(r + 1, c);
+        if (!isDrawn(vEdge(r, c))) return vEdge(r, c);
+        if (!isDrawn(vEdge(r, c + 1))) return vEdge(r, c + 1);
+        return -1;
+    }
+    public int boxesOf(int pid) { return playerBoxCount[pid]; }
+
+    /**
+     * Draws an edge for player pid (1/2) and returns how many boxes it completed (0..2).
+     * Throws if the edge is out of range or taken; allocation-free.
+     */
+    public int claimEdge(int edge, int pid) {
+        if (edge < 0 || edge >= edgeCount) throw new IllegalArgumentException("No such edge");
+        long bit = 1L << edge;
+        int w = edge >>> 6;
+        if ((drawn[w] & bit) != 0) throw new IllegalArgumentException("Edge already taken");
+        drawn[w] |= bit;
+        if (pid == 2) owner2[w] |= bit;
+        if (historySize == history.length) history = Arrays.copyOf(history, historySize * 2);
+        history[historySize++] = edge;
+
+        // below/right before above/left, so labels number boxes as they always have
+        int a = firstBox(edge), b = secondBox(edge), scored = 0;
+        if (b >= 0 && ++sides[b] == 4) { takeBox(b, pid); scored++; }
+        if (a >= 0 && ++sides[a] == 4) { takeBox(a, pid); scored++; }
+        return scored;
+    }
+
+    /** Takes back the last claimEdge (board state only; Player scores are not touched). */
+    public void undo() {
+        int edge = history[--historySize];
+        long bit = 1L << edge;
+        int w = edge >>> 6;
+        int pid = (owner2[w] & bit) != 0 ? 2 : 1;
+        drawn[w] &= ~bit;
+        owner2[w] &= ~bit;
+        int a = firstBox(edge), b = secondBox(edge);
+        if (a >= 0 && sides[a]-- == 4) releaseBox(a, pid);
+        if (b >= 0 && sides[b]-- == 4) releaseBox(b, pid);
+    }
+
+    /**
+     * Position as bytes: the drawn bit set, the owner-2 bit set ((edgeCount + 7) / 8 bytes each), then one
+     * varint per box (0 = open, else label number << 1 | owner - 1). The undo history is not included.
+     */
+    public byte[] snapshot() {
+        int bytes = (edgeCount + 7) >>> 3;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2 * bytes + rows * cols);
+        for (long[] bits : new long[][] { drawn, owner2 })
+            for (int i = 0; i < bytes; i++) out.write((int) (bits[i >>> 3] >>> ((i & 7) << 3)));
+        for (int box = 0; box < rows * cols; box++)
+            Varint.write(out, boxOwner[box] == 0 ? 0 : boxSeq[box] << 1 | (boxOwner[box] - 1));
+        return out.toByteArray();
+    }
+
+    /** Loads a snapshot() of a board of this size (side counts and scores are recomputed); clears the undo history. */
+    public void restore(byte[] data) {
+        int bytes = (edgeCount + 7) >>> 3;
+        ByteBuffer in = ByteBuffer.wrap(data);
+        Arrays.fill(drawn, 0);
+        Arrays.fill(owner2, 0);
+        Arrays.fill(sides, (byte) 0);
+        Arrays.fill(playerBoxCount, 0);
+        completed = 0;
+        historySize = 0;
+        try {
+            for (long[] bits : new long[][] { drawn, owner2 })
+                for (int i = 0; i < bytes; i++) bits[i >>> 3] |= (in.get() & 0xFFL) << ((i & 7) << 3);
+            for (int box = 0; box < rows * cols; box++) {
+                int v = Varint.read(in);
+                boxOwner[box] = (byte) (v == 0 ? 0 : (v & 1) + 1);
+                boxSeq[box] = v >>> 1;
+                if (v != 0) {
+                    playerBoxCount[boxOwner[box]]++;
+                    completed++;
+                }
             }
-            System.out.println(vEdgeString(vEdges[r][cols]));
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Snapshot is too short for a " + rows + "x" + cols + " board.");
         }
-        // bottom line
-        for (int c = 0; c < cols; c++) {
-            System.out.print("+");
-            System.out.print(hEdgeString(hEdges[rows][c]));
+        if (in.hasRemaining() || (edgeCount & 63) != 0 && (drawn[drawn.length - 1] | owner2[drawn.length - 1]) >>> edgeCount != 0)
+            throw new IllegalArgumentException("Snapshot is not for a " + rows + "x" + cols + " board.");
+        for (int edge = 0; edge < edgeCount; edge++) {
+            if (!isDrawn(edge)) continue;
+            int a = firstBox(edge), b = secondBox(edge);
+            if (a >= 0) sides[a]++;
+            if (b >= 0) sides[b]++;
         }
-        System.out.println("+");
-        return null;
+        for (int box = 0; box < rows * cols; box++)
+            if ((sides[box] == 4) != (boxOwner[box] != 0))
+                throw new IllegalArgumentException("Snapshot box owners do not match its edges.");
     }
 
-    private String hEdgeString(int owner) {
-        if (owner == 1) return "===";
-        if (owner == 2) return "---";
-        return "   ";
+    private void takeBox(int box, int pid) {
+        boxOwner[box] = (byte) pid;
+        boxSeq[box] = ++playerBoxCount[pid];
+        completed++;
     }
-    private String vEdgeString(int owner) {
-        return (owner == 1 || owner == 2) ? "|" : " ";
+
+    private void releaseBox(int box, int pid) {
+        boxOwner[box] = 0;
+        playerBoxCount[pid]--;
+        completed--;
     }
 
-    private int[] pointToCoord(int point) {
-        int r = (point - 1) / (cols + 1);
-        int c = (point - 1) % (cols + 1);
-        return new int[]{r, c};
+    /** Box above / left of the edge, or -1 on the border. */
+    public int firstBox(int edge) {
+        if (edge < hCount) {
+            int r = edge / cols, c = edge % cols;
+            return r > 0 ? (r - 1) * cols + c : -1;
+        }
+        int v = edge - hCount, r = v / (cols + 1), c = v % (cols + 1);
+        return c > 0 ? r * cols + c - 1 : -1;
     }
 
-    public boolean claimEdgeByPoints(int p1, int p2, Player p) {
-        int[] a = pointToCoord(p1);
-        int[] b = pointToCoord(p2);
-        int r1 = a[0], c1 = a[1];
-        int r2 = b[0], c2 = b[1];
-        int id = p.getId();
-
-        if (r1 == r2 && Math.abs(c1 - c2) == 1) {            // horizontal
-            int r = r1, c = Math.min(c1, c2);
-            if (hEdges[r][c] != 0) throw new IllegalArgumentException("Edge already taken");
-            hEdges[r][c] = id;
-            return checkBoxesAfterMove(r, c, 'H', p);
-        } else if (c1 == c2 && Math.abs(r1 - r2) == 1) {     // vertical
-            int r = Math.min(r1, r2), c = c1;
-            if (vEdges[r][c] != 0) throw new IllegalArgumentException("Edge already taken");
-            vEdges[r][c] = id;
-            return checkBoxesAfterMove(r, c, 'V', p);
-        } else {
-            throw new IllegalArgumentException("Points are not adjacent.");
+    /** Box below / right of the edge, or -1 on the border. */
+    public int secondBox(int edge) {
+        if (edge < hCount) {
+            int r = edge / cols, c = edge % cols;
+            return r < rows ? r * cols + c : -1;
         }
+        int v = edge - hCount, r = v / (cols + 1), c = v % (cols + 1);
+        return c < cols ? r * cols + c : -1;
     }
 
-    private boolean checkBoxesAfterMove(int r, int c, char orient, Player p) {
-        boolean scored = false;
-        if (orient == 'H') {
-            if (r < rows && isBoxCompleted(r, c)) { markBox(r, c, p); scored = true; }
-            if (r > 0 && isBoxCompleted(r - 1, c)) { markBox(r - 1, c, p); scored = true; }
-        } else {
-            if (c < cols && isBoxCompleted(r, c)) { markBox(r, c, p); scored = true; }
-            if (c > 0 && isBoxCompleted(r, c - 1)) { markBox(r, c - 1, p); scored = true; }
+    @Override
+    public Void displayBoard() {
+        frame.setLength(0);
+        try {
+            render(frame);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // StringBuilder never throws
         }
-        return scored;
+        System.out.print(frame);   // one locked write per frame
+        System.out.flush();
+        return null;
     }
 
-    private void markBox(int r, int c, Player p) {
-        int id = p.getId();
-        playerBoxCount[id]++;
-        boxes[r][c] = playerSymbols[id] + playerBoxCount[id]; // e.g. A1/B2
-        p.incrementScore();
+    /** Writes the whole board to out (a Writer, a StringBuilder, a socket stream, a null sink...). */
+    public void render(Appendable out) throws IOException {
+        render(out, 0, 0, rows, cols);
     }
 
-    private boolean isBoxCompleted(int r, int c) {
-        return hEdges[r][c] != 0 && hEdges[r + 1][c] != 0 &&
-                vEdges[r][c] != 0 && vEdges[r][c + 1] != 0;
+    /** Writes box rows r0..r1-1 and columns c0..c1-1 (with their border edges) to out, one line at a time. */
+    public void render(Appendable out, int r0, int c0, int r1, int c1) throws IOException {
+        r0 = Math.max(0, r0);
+        c0 = Math.max(0, c0);
+        r1 = Math.min(rows, r1);
+        c1 = Math.min(cols, c1);
+        for (int r = r0; r < r1; r++) {
+            edgeLine(out, r, c0, c1);
+            // vertical edges + box labels
+            for (int c = c0; c < c1; c++) {
+                out.append(isDrawn(vEdge(r, c)) ? '|' : ' ');
+                boxLabel(out, r * cols + c);
+            }
+            out.append(isDrawn(vEdge(r, c1)) ? '|' : ' ').append('\n');
+        }
+        edgeLine(out, r1, c0, c1);
     }
 
-    @Override
-    public boolean isSolved() {
-        for (String[] row : boxes)
-            for (String cell : row)
-                if (cell == null) return false;
-        return true;
+    /** Renders a (2 * radius + 1)-box square window centred on an edge, e.g. the last move. */
+    public void renderAround(Appendable out, int edge, int radius) throws IOException {
+        int box = secondBox(edge) >= 0 ? secondBox(edge) : firstBox(edge);
+        int size = 2 * radius + 1;
+        // slide the window back inside the board instead of clipping it
+        int r0 = Math.max(0, Math.min(box / cols - radius, rows - size));
+        int c0 = Math.max(0, Math.min(box % cols - radius, cols - size));
+        render(out, r0, c0, r0 + size, c0 + size);
+    }
+
+    /* "+===+   +" line above box row r */
+    private void edgeLine(Appendable out, int r, int c0, int c1) throws IOException {
+        for (int c = c0; c < c1; c++) out.append('+').append(hSegments[edgeOwner(hEdge(r, c))]);
+        out.append('+').append('\n');
+    }
+
+    /* Completed box label, e.g. " A1", right-aligned in the cell; no strings are built */
+    private void boxLabel(Appendable out, int box) throws IOException {
+        if (boxOwner[box] == 0) {
+            out.append(blank);
+            return;
+        }
+        int from = digits.length, seq = boxSeq[box];
+        do {
+            digits[--from] = (char) ('0' + seq % 10);
+            seq /= 10;
+        } while (seq > 0);
+        out.append(blank, 0, cellWidth - 1 - (digits.length - from)).append(playerSymbols[boxOwner[box]])
+                .append(digitView, from, digits.length);
+    }
+
+    private static String repeat(char ch, int count) {
+        char[] cs = new char[count];
+        Arrays.fill(cs, ch);
+        return new String(cs);
+    }
+
+    /** Edge index between two point numbers (as typed by players); throws if they are not adjacent. */
+    public int edgeBetween(int pA, int pB) {
+        int w = cols + 1, points = (rows + 1) * w;
+        if (pA < 1 || pA > points || pB < 1 || pB > points) throw new IllegalArgumentException("No such point");
+        int r1 = (pA - 1) / w, c1 = (pA - 1) % w;
+        int r2 = (pB - 1) / w, c2 = (pB - 1) % w;
+        if (r1 == r2 && Math.abs(c1 - c2) == 1) return hEdge(r1, Math.min(c1, c2));   // horizontal
+        if (c1 == c2 && Math.abs(r1 - r2) == 1) return vEdge(Math.min(r1, r2), c1);   // vertical
+        throw new IllegalArgumentException("Points are not adjacent.");
     }
-}
 
+    public boolean claimEdgeByPoints(int p1, int p2, Player p) {
+        int scored = claimEdge(edgeBetween(p1, p2), p.getId());
+        for (int i = 0; i < scored; i++) p.incrementScore();
+        return scored > 0;
+    }
+
+    /** Drawn edges as bits in solver order (boards with at most 64 edges). */
+    public long edgeMask() {
+        if (edgeCount > 64) throw new IllegalStateException("Board has more than 64 edges.");
+        return drawn[0];
+    }
+
+    /** The two point numbers (as typed by players) joined by an edge index. */
+    public int[] edgePoints(int edge) {
+        if (edge < hCount) {
+            int r = edge / cols, c = edge % cols, p = r * (cols + 1) + c + 1;
+            return new int[]{p, p + 1};
+        }
+        int r = (edge - hCount) / (cols + 1), c = (edge - hCount) % (cols + 1), p = r * (cols + 1) + c + 1;
+        return new int[]{p, p + cols + 1};
+    }
+
+    @Override
+    public boolean isSolved() { return completed == rows * cols; }
+}
@@ -0,0 +1,92 @@
+package dotsAndBoxes;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Render throughput of DotsAndBoxesBoard on a half-filled board, per output target.
+ * - null: render(Appendable) into a sink that drops everything (pure rendering cost)
+ * - buffer: into one reused StringBuilder, as displayBoard does
+ * - buffered: buffer, then a single write per frame to an autoflushing PrintStream (displayBoard's output path)
+ * - direct: straight into the autoflushing PrintStream, one locked write per piece (the old path)
+ * - writer: through a BufferedWriter (files, sockets)
+ * All streams write to a discarding OutputStream, so only the Java side is measured.
+ *
+ * Usage: java dotsAndBoxes.DotsAndBoxesRenderBenchmark rows cols [frames] [seed]
+ */
+public class DotsAndBoxesRenderBenchmark {
+    private static final OutputStream NOWHERE = new OutputStream() {
+        @Override public void write(int b) { }
+        @Override public void write(byte[] b, int off, int len) { }
+    };
+
+    private static final Appendable NULL_SINK = new Appendable() {
+        @Override public Appendable append(CharSequence csq) { return this; }
+        @Override public Appendable append(CharSequence csq, int start, int end) { return this; }
+        @Override public Appendable append(char c) { return this; }
+    };
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: DotsAndBoxesRenderBenchmark rows cols [frames] [seed]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]), cols = Integer.parseInt(args[1]);
+        int frames = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1;
+
+        DotsAndBoxesBoard board = new DotsAndBoxesBoard(rows, cols, "A", "B");
+        Random rnd = new Random(seed);
+        int side = 1;
+        for (int i = 0; i < board.edgeCount() / 2; i++) {
+            int e;
+            do { e = rnd.nextInt(board.edgeCount()); } while (board.isDrawn(e));
+            if (board.claimEdge(e, side) == 0) side = 3 - side;
+        }
+        StringBuilder frame = new StringBuilder();
+        board.render(frame);
+        System.out.println("# " + rows + "x" + cols + ", " + frame.length() + " chars per frame, " + frames + " frames");
+        System.out.println("# target\tframes/sec\tMchars/s\tus/frame");
+
+        PrintStream console = new PrintStream(NOWHERE, true, "UTF-8");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(NOWHERE, StandardCharsets.UTF_8), 1 << 16);
+        for (int round = 0; round < 2; round++) {   // the first round warms up the JIT
+            boolean report = round == 1;
+            run("null", board, frames, report, () -> board.render(NULL_SINK));
+            run("buffer", board, frames, report, () -> {
+                frame.setLength(0);
+                board.render(frame);
+            });
+            run("buffered", board, frames, report, () -> {
+                frame.setLength(0);
+                board.render(frame);
+                console.print(frame);
+                console.flush();
+            });
+            run("direct", board, Math.max(1, frames / 10), report, () -> board.render(console));
+            run("writer", board, frames, report, () -> board.render(writer));
+        }
+        writer.flush();
+    }
+
+    private interface Frame {
+        void render() throws IOException;
+    }
+
+    private static void run(String target, DotsAndBoxesBoard board, int frames, boolean report, Frame f) throws IOException {
+        StringBuilder probe = new StringBuilder();
+        board.render(probe);
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) f.render();
+        long nanos = Math.max(1, System.nanoTime() - start);
+        if (!report) return;
+        System.out.printf("%s\t%.0f\t%.1f\t%.2f%n", target, frames * 1e9 / nanos,
+                (double) probe.length() * frames * 1e3 / nanos, nanos / 1e3 / frames);
+    }
+}
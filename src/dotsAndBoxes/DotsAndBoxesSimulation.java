@@ -0,0 +1,132 @@
+package dotsAndBoxes;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Bot-vs-bot Dots and Boxes on boards of any size (e.g. 500x500), for load and memory testing.
+ * - Both bots: take a capturable box if there is one, else draw a safe edge (no third side), else any edge
+ * - Work is O(edges) per game: capturable boxes are tracked on a stack and safe edges come from one
+ *   shuffled pass (an edge that is unsafe once stays unsafe)
+ * - Rendering goes through one buffered writer: the full board, a viewport around the last move
+ *   every N moves, or nothing
+ *
+ * Usage: java dotsAndBoxes.DotsAndBoxesSimulation rows cols [--seed S] [--render none|full|view]
+ *        [--radius R] [--every N] [--out board.txt]
+ */
+public class DotsAndBoxesSimulation {
+    private final DotsAndBoxesBoard board;
+    private final int[] order;        // shuffled edge order for safe moves
+    private int safeCursor, anyCursor;
+    private int[] capturable;         // boxes that reached three sides (may be stale)
+    private int capturableSize;
+
+    public DotsAndBoxesSimulation(int rows, int cols, long seed) {
+        board = new DotsAndBoxesBoard(rows, cols, "A", "B");
+        order = new int[board.edgeCount()];
+        Random rng = new Random(seed);
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+        capturable = new int[16];
+    }
+
+    public DotsAndBoxesBoard board() { return board; }
+
+    /** Plays one move for pid; returns the edge drawn, or -1 once the board is full. */
+    public int step(int pid, boolean[] scored) {
+        int edge = nextEdge();
+        if (edge < 0) return -1;
+        scored[0] = board.claimEdge(edge, pid) > 0;
+        track(board.firstBox(edge));
+        track(board.secondBox(edge));
+        return edge;
+    }
+
+    private int nextEdge() {
+        while (capturableSize > 0) {
+            int box = capturable[--capturableSize];
+            if (board.sides(box) == 3) return board.freeSide(box);
+        }
+        for (; safeCursor < order.length; safeCursor++) {
+            int e = order[safeCursor];
+            if (!board.isDrawn(e) && isSafe(e)) return e;
+        }
+        for (; anyCursor < order.length; anyCursor++) {
+            int e = order[anyCursor];
+            if (!board.isDrawn(e)) return e;
+        }
+        return -1;
+    }
+
+    private boolean isSafe(int edge) {
+        int a = board.firstBox(edge), b = board.secondBox(edge);
+        return (a < 0 || board.sides(a) < 2) && (b < 0 || board.sides(b) < 2);
+    }
+
+    private void track(int box) {
+        if (box < 0 || board.sides(box) != 3) return;
+        if (capturableSize == capturable.length) capturable = java.util.Arrays.copyOf(capturable, capturableSize * 2);
+        capturable[capturableSize++] = box;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: DotsAndBoxesSimulation rows cols [--seed S] [--render none|full|view] [--radius R] [--every N] [--out board.txt]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]), cols = Integer.parseInt(args[1]);
+        long seed = 1;
+        String render = "none", outFile = null;
+        int radius = 5, every = 0;
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--render": render = args[++i]; break;
+                case "--radius": radius = Integer.parseInt(args[++i]); break;
+                case "--every": every = Integer.parseInt(args[++i]); break;
+                case "--out": outFile = args[++i]; break;
+                default: System.out.println("Unknown option: " + args[i]); return;
+            }
+        }
+
+        Writer out = new BufferedWriter(outFile == null
+                ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                : Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8), 1 << 16);
+        try {
+            long start = System.nanoTime();
+            DotsAndBoxesSimulation sim = new DotsAndBoxesSimulation(rows, cols, seed);
+            DotsAndBoxesBoard board = sim.board();
+            boolean[] scored = new boolean[1];
+            int pid = 1, moves = 0, edge, last = -1;
+            while ((edge = sim.step(pid, scored)) >= 0) {
+                moves++;
+                last = edge;
+                if (!scored[0]) pid = 3 - pid;
+                if (render.equals("view") && every > 0 && moves % every == 0) {
+                    out.write("Move " + moves + ":\n");
+                    board.renderAround(out, edge, radius);
+                }
+            }
+            long nanos = System.nanoTime() - start;
+            if (render.equals("full")) board.render(out, 0, 0, rows, cols);
+            else if (render.equals("view") && last >= 0) board.renderAround(out, last, radius);
+
+            Runtime rt = Runtime.getRuntime();
+            out.write(String.format("%dx%d: %,d moves in %d ms (%,.0f moves/sec), A %,d boxes, B %,d boxes, heap used %,d KB%n",
+                    rows, cols, moves, nanos / 1_000_000, moves * 1e9 / Math.max(1, nanos),
+                    board.boxesOf(1), board.boxesOf(2), (rt.totalMemory() - rt.freeMemory()) / 1024));
+        } finally {
+            out.flush();
+            if (outFile != null) out.close();
+        }
+    }
+}
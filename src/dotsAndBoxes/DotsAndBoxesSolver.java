@@ -0,0 +1,327 @@
+package dotsAndBoxes;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Exact Dots and Boxes solver (boards with at most 64 edges, e.g. 4x5 / 5x5).
+ * - Negamax alpha-beta over a long edge mask; the value is the net number of the remaining boxes
+ *   the player to move gets with best play (boxes already taken don't matter)
+ * - Capturable boxes: a capture that can't start a chain is simply taken; otherwise the only
+ *   candidates are taking the box or declining the last two with the "all-but-two" double-deal
+ * - Once every open box has exactly two sides the position is a set of chains and loops and is
+ *   valued directly (controlled-value DP over the components) instead of searched
+ * - Transposition table (DotsAndBoxesTable, shareable between threads) keyed by the canonical mask
+ *   under the board's symmetries; a node budget keeps interactive calls bounded
+ * Edge index: horizontal edges first (r * cols + c, r = 0..rows), then vertical (H + r * (cols + 1) + c).
+ */
+public class DotsAndBoxesSolver {
+    public static final long DEFAULT_NODE_LIMIT = 20_000_000L;
+    private static final int MAX_COMPONENTS = 16;
+    private static final int INF = 1000;
+
+    private final int rows, cols, boxCount, edgeCount, hCount;
+    private final long[] boxEdges;       // edge bits of each box
+    private final int[][] edgeBoxes;     // 1 or 2 boxes per edge
+    private final long full;
+
+    private final DotsAndBoxesTable table;
+    private final EdgeSymmetries symmetries;
+    private AtomicBoolean stop;          // set by a parallel search once any thread has the answer
+    private int shift;                   // edge order rotation, so parallel helpers diverge
+
+    private long nodes, nodeLimit = DEFAULT_NODE_LIMIT;
+    private boolean aborted;
+
+    // scratch for the chain/loop endgame
+    private final int[] compLength = new int[MAX_COMPONENTS];
+    private final boolean[] compLoop = new boolean[MAX_COMPONENTS];
+    private final int[] subsetValue = new int[1 << MAX_COMPONENTS];
+    private final int[] stack;
+    private final boolean[] seen;
+
+    public DotsAndBoxesSolver(int rows, int cols) { this(rows, cols, 22); }
+
+    public DotsAndBoxesSolver(int rows, int cols, int log2TableSize) {
+        this(rows, cols, new DotsAndBoxesTable(log2TableSize));
+    }
+
+    /** Solver using a (possibly shared) table. */
+    public DotsAndBoxesSolver(int rows, int cols, DotsAndBoxesTable table) {
+        this.rows = rows;
+        this.cols = cols;
+        this.boxCount = rows * cols;
+        this.hCount = (rows + 1) * cols;
+        this.edgeCount = hCount + rows * (cols + 1);
+        if (edgeCount > 64) throw new IllegalArgumentException("Solver supports boards with at most 64 edges.");
+        this.full = edgeCount == 64 ? -1L : (1L << edgeCount) - 1;
+        this.boxEdges = new long[boxCount];
+        int[] perEdge = new int[edgeCount];
+        for (int r = 0; r < rows; r++)
+            for (int c = 0; c < cols; c++) {
+                int b = r * cols + c;
+                int[] es = {hEdge(r, c), hEdge(r + 1, c), vEdge(r, c), vEdge(r, c + 1)};
+                for (int e : es) { boxEdges[b] |= 1L << e; perEdge[e]++; }
+            }
+        this.edgeBoxes = new int[edgeCount][];
+        for (int e = 0; e < edgeCount; e++) edgeBoxes[e] = new int[perEdge[e]];
+        int[] fill = new int[edgeCount];
+        for (int b = 0; b < boxCount; b++)
+            for (long m = boxEdges[b]; m != 0; m &= m - 1) {
+                int e = Long.numberOfTrailingZeros(m);
+                edgeBoxes[e][fill[e]++] = b;
+            }
+        this.table = table;
+        this.symmetries = new EdgeSymmetries(rows, cols);
+        this.stack = new int[boxCount];
+        this.seen = new boolean[boxCount];
+    }
+
+    public int hEdge(int r, int c) { return r * cols + c; }
+    public int vEdge(int r, int c) { return hCount + r * (cols + 1) + c; }
+    public int edgeCount() { return edgeCount; }
+
+    /** Upper bound on searched nodes per call; past it the result is marked aborted. */
+    public void setNodeLimit(long nodeLimit) { this.nodeLimit = nodeLimit; }
+    public long nodes() { return nodes; }
+    public boolean aborted() { return aborted; }
+
+    /* Lazy-SMP hooks: a shared stop flag and a per-thread move order. */
+    void setStop(AtomicBoolean stop) { this.stop = stop; }
+    void setShift(int shift) { this.shift = shift; }
+
+    /** Net boxes (of those still open) the player to move gets with best play; check aborted() afterwards. */
+    public int solve(long mask) {
+        nodes = 0;
+        aborted = false;
+        // MTD(f): null-window probes converge on the value; the table keeps the bounds between probes
+        int lo = -boxCount, hi = boxCount, g = 0;
+        while (lo < hi && !aborted) {
+            int beta = g == lo ? g + 1 : g;
+            g = search(mask, beta - 1, beta);
+            if (g < beta) hi = g; else lo = g;
+        }
+        return g;
+    }
+
+    /** Best edge for the player to move, or -1 if the budget ran out (use heuristicMove then). */
+    public int bestMove(long mask) {
+        nodes = 0;
+        aborted = false;
+        int best = -1, bestValue = -INF;
+        for (long free = full & ~mask; free != 0; free &= free - 1) {
+            int e = Long.numberOfTrailingZeros(free);
+            long next = mask | 1L << e;
+            int k = completed(next, e);
+            int v = k > 0 ? k + search(next, bestValue - k, INF) : -search(next, -INF, -bestValue);
+            if (aborted) return -1;
+            if (best < 0 || v > bestValue) { bestValue = v; best = e; }
+        }
+        lastValue = bestValue;
+        return best;
+    }
+
+    private int lastValue;
+
+    /** Value of the move returned by the last successful bestMove. */
+    public int lastValue() { return lastValue; }
+
+    /**
+     * Cheap fallback: a capture if there is one, else a move that gives away no box,
+     * else the move that hands over the fewest boxes.
+     */
+    public int heuristicMove(long mask) {
+        long free = full & ~mask;
+        for (long m = free; m != 0; m &= m - 1) {
+            int e = Long.numberOfTrailingZeros(m);
+            if (completed(mask | 1L << e, e) > 0) return e;
+        }
+        int best = -1, bestGiven = Integer.MAX_VALUE;
+        for (long m = free; m != 0; m &= m - 1) {
+            int e = Long.numberOfTrailingZeros(m);
+            int given = handedOver(mask | 1L << e);
+            if (given < bestGiven) { bestGiven = given; best = e; }
+        }
+        return best;
+    }
+
+    private int search(long mask, int alpha, int beta) {
+        if (mask == full) return 0;
+        if (++nodes > nodeLimit || ((nodes & 0xFFF) == 0 && stop != null && stop.get())) { aborted = true; return 0; }
+
+        // capturable boxes: safe ones are simply taken, otherwise take or decline ("all but two/four")
+        int capturable = 0, first = -1, second = -1, open = 0;
+        for (int b = 0; b < boxCount; b++) {
+            long missing = boxEdges[b] & ~mask;
+            if (missing != 0) open++;
+            if (Long.bitCount(missing) != 1) continue;
+            int e = Long.numberOfTrailingZeros(missing);
+            int other = otherBox(e, b);
+            if (other < 0 || Long.bitCount(mask & boxEdges[other]) != 2) {
+                long next = mask | missing;
+                int k = completed(next, e);
+                return k + search(next, alpha - k, beta - k);
+            }
+            if (capturable++ == 0) first = b; else second = b;
+        }
+        if (capturable > 0) {
+            long missing = boxEdges[first] & ~mask;
+            long next = mask | missing;
+            int k = completed(next, Long.numberOfTrailingZeros(missing));
+            int take = k + search(next, alpha - k, beta - k);
+            if (aborted || take >= beta) return take;
+            long decline = declineMove(mask, first, capturable == 2 ? second : -1);
+            if (decline == 0) return take;
+            long declined = mask | decline;
+            int d = Long.numberOfTrailingZeros(decline);
+            int kd = completed(declined, d);
+            int v = kd > 0 ? kd + search(declined, Math.max(alpha, take) - kd, beta - kd)
+                    : -search(declined, -beta, -Math.max(alpha, take));
+            return Math.max(take, v);
+        }
+
+        int endgame = chainEndgame(mask);
+        if (endgame != Integer.MIN_VALUE) return endgame;
+
+        // nobody can win more than the open boxes
+        if (open <= alpha) return open;
+        if (-open >= beta) return -open;
+        long key = symmetries.canonical(mask);
+        long data = table.probe(key);
+        int oldLower = -open, oldUpper = open;
+        if (data != 0) {
+            int lower = DotsAndBoxesTable.lower(data), upper = DotsAndBoxesTable.upper(data);
+            oldLower = Math.max(oldLower, lower);
+            oldUpper = Math.min(oldUpper, upper);
+            if (lower >= beta) return lower;
+            if (upper <= alpha) return upper;
+            if (lower == upper) return lower;
+            alpha = Math.max(alpha, lower);
+            beta = Math.min(beta, upper);
+        }
+        int alpha0 = alpha;
+
+        // safe moves (no box gets a third side) before sacrifices
+        int best = -INF;
+        for (int pass = 0; pass < 2 && best < beta; pass++) {
+            for (long free = Long.rotateRight(full & ~mask, shift); free != 0 && best < beta; free &= free - 1) {
+                int e = (Long.numberOfTrailingZeros(free) + shift) & 63;
+                long next = mask | 1L << e;
+                if ((handsOver(next, e) ? 1 : 0) != pass) continue;
+                int v = -search(next, -beta, -Math.max(alpha, best));
+                if (aborted) return 0;
+                if (v > best) best = v;
+            }
+        }
+
+        int lower = best > alpha0 ? best : oldLower;   // fail high or exact
+        int upper = best < beta ? best : oldUpper;     // fail low or exact
+        table.store(key, lower, upper);
+        return best;
+    }
+
+    /*
+     * If every open box has exactly two sides, every move opens a chain or loop: value the components.
+     * Opening a chain of length L lets the opponent take all (L + v') or all but two (L - 4 - v');
+     * loops cost four to decline. Returns Integer.MIN_VALUE if the position isn't of that form.
+     */
+    private int chainEndgame(long mask) {
+        for (int b = 0; b < boxCount; b++) {
+            int sides = Long.bitCount(mask & boxEdges[b]);
+            if (sides != 2 && sides != 4) return Integer.MIN_VALUE;
+        }
+        int k = 0;
+        java.util.Arrays.fill(seen, false);
+        for (int b = 0; b < boxCount; b++) {
+            if (seen[b] || Long.bitCount(mask & boxEdges[b]) == 4) continue;
+            if (k == MAX_COMPONENTS) return Integer.MIN_VALUE;
+            int length = 0, top = 0;
+            boolean ground = false;
+            stack[top++] = b;
+            seen[b] = true;
+            while (top > 0) {
+                int x = stack[--top];
+                length++;
+                for (long m = boxEdges[x] & ~mask; m != 0; m &= m - 1) {
+                    int y = otherBox(Long.numberOfTrailingZeros(m), x);
+                    if (y < 0) ground = true;
+                    else if (!seen[y]) { seen[y] = true; stack[top++] = y; }
+                }
+            }
+            compLength[k] = length;
+            compLoop[k] = !ground;
+            k++;
+        }
+        subsetValue[0] = 0;
+        for (int s = 1; s < 1 << k; s++) {
+            int best = -INF;
+            for (int i = 0; i < k; i++) {
+                if ((s >>> i & 1) == 0) continue;
+                int rest = subsetValue[s & ~(1 << i)], l = compLength[i], v;
+                if (compLoop[i]) v = Math.min(-l - rest, 8 - l + rest);
+                else if (l <= 2) v = -l - rest;          // short chains: the opener can deny the double-deal
+                else v = Math.min(-l - rest, 4 - l + rest);
+                if (v > best) best = v;
+            }
+            subsetValue[s] = best;
+        }
+        return subsetValue[(1 << k) - 1];
+    }
+
+    /*
+     * The double-dealing move that leaves the last boxes of an opened chain/loop to the opponent:
+     * with one capturable box, the far edge of the box behind it (all-but-two); with two capturable
+     * boxes whose followers share an edge, that edge (all-but-four of a loop). 0 if there is none.
+     */
+    private long declineMove(long mask, int b1, int b2) {
+        long m1 = boxEdges[b1] & ~mask;
+        int o1 = otherBox(Long.numberOfTrailingZeros(m1), b1);
+        if (b2 < 0) {
+            // only at the end of the chain: the far edge must not hand over yet another box
+            long far = boxEdges[o1] & ~mask & ~m1;
+            int o3 = otherBox(Long.numberOfTrailingZeros(far), o1);
+            return o3 >= 0 && Long.bitCount(mask & boxEdges[o3]) == 2 ? 0 : far;
+        }
+        long m2 = boxEdges[b2] & ~mask;
+        int o2 = otherBox(Long.numberOfTrailingZeros(m2), b2);
+        if (o1 == o2) return 0;
+        long shared = boxEdges[o1] & boxEdges[o2] & ~mask;
+        return shared;
+    }
+
+    /* Boxes completed by edge e in mask (0, 1 or 2). */
+    private int completed(long mask, int e) {
+        int k = 0;
+        for (int b : edgeBoxes[e]) if ((mask & boxEdges[b]) == boxEdges[b]) k++;
+        return k;
+    }
+
+    /* Does edge e give some box its third side? */
+    private boolean handsOver(long mask, int e) {
+        for (int b : edgeBoxes[e]) if (Long.bitCount(mask & boxEdges[b]) == 3) return true;
+        return false;
+    }
+
+    /* Boxes the opponent could then take in a row (greedy capture count), used by the heuristic. */
+    private int handedOver(long mask) {
+        int taken = 0;
+        boolean again = true;
+        while (again) {
+            again = false;
+            for (int b = 0; b < boxCount; b++) {
+                long missing = boxEdges[b] & ~mask;
+                if (Long.bitCount(missing) == 1) {
+                    mask |= missing;
+                    taken += completed(mask, Long.numberOfTrailingZeros(missing));
+                    again = true;
+                }
+            }
+        }
+        return taken;
+    }
+
+    private int otherBox(int e, int b) {
+        int[] bs = edgeBoxes[e];
+        if (bs.length == 1) return -1;
+        return bs[0] == b ? bs[1] : bs[0];
+    }
+}
@@ -0,0 +1,44 @@
+package dotsAndBoxes;
+
+/**
+ * Lock-free transposition table shared by DotsAndBoxesSolver threads.
+ * - Two longs per slot: key ^ data and data; a reader only accepts a slot whose XOR matches its key,
+ *   so racing writers (or torn 64-bit writes) at worst lose an entry, never return a wrong one
+ * - Data packs the lower and upper bound of the position value (16 bits each) and a used bit
+ */
+public final class DotsAndBoxesTable {
+    private final long[] slots;
+    private final int mask;
+
+    /** Table with 2^log2Size entries (16 bytes each). */
+    public DotsAndBoxesTable(int log2Size) {
+        if (log2Size < 4 || log2Size > 28) throw new IllegalArgumentException("Table size must be 2^4..2^28 entries.");
+        slots = new long[2 << log2Size];
+        mask = (1 << log2Size) - 1;
+    }
+
+    /** Packed data for key, or 0 if absent. */
+    long probe(long key) {
+        int i = index(key);
+        long data = slots[i + 1];
+        long check = slots[i];
+        return data != 0 && (check ^ data) == key ? data : 0L;
+    }
+
+    void store(long key, int lower, int upper) {
+        long data = ((long) (lower & 0xFFFF) << 16) | (upper & 0xFFFF) | (1L << 32);
+        int i = index(key);
+        slots[i] = key ^ data;
+        slots[i + 1] = data;
+    }
+
+    static int lower(long data) { return (short) (data >>> 16); }
+    static int upper(long data) { return (short) data; }
+
+    public void clear() { java.util.Arrays.fill(slots, 0L); }
+
+    private int index(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return ((int) (h >>> 32) & mask) << 1;
+    }
+}
@@ -0,0 +1,59 @@
+package dotsAndBoxes;
+
+/**
+ * Symmetries of a Dots and Boxes board acting on edge masks (boards with at most 64 edges).
+ * - 8 symmetries for square boards (rotations and reflections), 4 for rectangles
+ * - Each symmetry permutes edge bits through per-byte lookup tables (8 lookups per mask)
+ * - canonical(mask) is the smallest image, so symmetric positions share one table entry
+ */
+final class EdgeSymmetries {
+    private final long[][][] byByte;   // [symmetry][byte index][byte value] -> permuted bits
+
+    EdgeSymmetries(int rows, int cols) {
+        int hCount = (rows + 1) * cols, edges = hCount + rows * (cols + 1);
+        int count = rows == cols ? 8 : 4;
+        byByte = new long[count - 1][8][256];
+        for (int s = 1; s < count; s++) {
+            int[] image = new int[edges];
+            for (int e = 0; e < edges; e++) {
+                // edge midpoints on a doubled grid: y in 0..2*rows, x in 0..2*cols
+                int y, x;
+                if (e < hCount) { y = 2 * (e / cols); x = 2 * (e % cols) + 1; }
+                else { int v = e - hCount; y = 2 * (v / (cols + 1)) + 1; x = 2 * (v % (cols + 1)); }
+                int ty = y, tx = x;
+                if ((s & 1) != 0) tx = 2 * cols - tx;              // mirror left-right
+                if ((s & 2) != 0) ty = 2 * rows - ty;              // mirror top-bottom
+                if ((s & 4) != 0) { int t = ty; ty = tx; tx = t; } // transpose (square boards only)
+                image[e] = (ty & 1) == 0 ? (ty / 2) * cols + (tx - 1) / 2 : hCount + ((ty - 1) / 2) * (cols + 1) + tx / 2;
+            }
+            for (int b = 0; b < 8; b++)
+                for (int v = 0; v < 256; v++) {
+                    long bits = 0;
+                    for (int i = 0; i < 8; i++) {
+                        int e = b * 8 + i;
+                        if ((v >>> i & 1) != 0 && e < edges) bits |= 1L << image[e];
+                    }
+                    byByte[s - 1][b][v] = bits;
+                }
+        }
+    }
+
+    int count() { return byByte.length + 1; }
+
+    long apply(int s, long mask) {
+        if (s == 0) return mask;
+        long[][] t = byByte[s - 1];
+        return t[0][(int) mask & 0xFF] | t[1][(int) (mask >>> 8) & 0xFF] | t[2][(int) (mask >>> 16) & 0xFF]
+                | t[3][(int) (mask >>> 24) & 0xFF] | t[4][(int) (mask >>> 32) & 0xFF] | t[5][(int) (mask >>> 40) & 0xFF]
+                | t[6][(int) (mask >>> 48) & 0xFF] | t[7][(int) (mask >>> 56) & 0xFF];
+    }
+
+    long canonical(long mask) {
+        long best = mask;
+        for (int s = 1; s < count(); s++) {
+            long m = apply(s, mask);
+            if (Long.compareUnsigned(m, best) < 0) best = m;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,127 @@
+package dotsAndBoxes;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Lazy-SMP wrapper around DotsAndBoxesSolver.
+ * - Every thread runs the full MTD(f) search on the same position, all sharing one DotsAndBoxesTable
+ * - Threads differ only in edge order, so they fill the table with different subtrees and feed each other bounds
+ * - The first thread to finish has the exact value; it raises a stop flag and the rest give up
+ * Usage: java dotsAndBoxes.ParallelDotsAndBoxesSolver rows cols [maxThreads] [drawnEdges] [seed]
+ */
+public class ParallelDotsAndBoxesSolver {
+    private final int rows, cols, threads;
+    private final DotsAndBoxesTable table;
+    private long lastNodes;
+    private boolean lastAborted;
+
+    public ParallelDotsAndBoxesSolver(int rows, int cols, int threads, DotsAndBoxesTable table) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one thread.");
+        this.rows = rows;
+        this.cols = cols;
+        this.threads = threads;
+        this.table = table;
+    }
+
+    /** Total nodes of all threads in the last solve. */
+    public long nodes() { return lastNodes; }
+
+    /** True if no thread finished within the node limit. */
+    public boolean aborted() { return lastAborted; }
+
+    /** Same value as DotsAndBoxesSolver.solve(mask); check aborted() afterwards. */
+    public int solve(long mask, long nodeLimit) {
+        AtomicBoolean stop = new AtomicBoolean();
+        Worker[] workers = new Worker[threads];
+        Thread[] pool = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            DotsAndBoxesSolver s = new DotsAndBoxesSolver(rows, cols, table);
+            s.setNodeLimit(nodeLimit);
+            s.setStop(stop);
+            s.setShift(i * 7);    // any rotation works; 7 spreads neighbouring edges apart
+            workers[i] = new Worker(s, mask, stop);
+            pool[i] = new Thread(workers[i], "dots-smp-" + i);
+            pool[i].start();
+        }
+        long nodes = 0;
+        Worker winner = null;
+        for (int i = 0; i < threads; i++) {
+            try {
+                pool[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stop.set(true);
+            }
+            nodes += workers[i].solver.nodes();
+            if (winner == null && workers[i].done) winner = workers[i];
+        }
+        lastNodes = nodes;
+        lastAborted = winner == null;
+        return winner == null ? 0 : winner.value;
+    }
+
+    private static final class Worker implements Runnable {
+        final DotsAndBoxesSolver solver;
+        final long mask;
+        final AtomicBoolean stop;
+        volatile boolean done;
+        volatile int value;
+
+        Worker(DotsAndBoxesSolver solver, long mask, AtomicBoolean stop) {
+            this.solver = solver;
+            this.mask = mask;
+            this.stop = stop;
+        }
+
+        @Override
+        public void run() {
+            int v = solver.solve(mask);
+            if (!solver.aborted()) {
+                value = v;
+                done = true;
+                stop.set(true);
+            }
+        }
+    }
+
+    /* Solves one position with 1, 2, 4, ... threads (fresh table each time) and prints the speedup over 1 thread. */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.out.println("Usage: ParallelDotsAndBoxesSolver rows cols [maxThreads] [drawnEdges] [seed]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]), cols = Integer.parseInt(args[1]);
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int drawn = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        int edges = rows * (cols + 1) + (rows + 1) * cols;
+        if (edges > 64) {
+            System.out.println("The exact solver handles at most 64 edges (" + rows + "x" + cols + " has " + edges + ").");
+            return;
+        }
+
+        // random position with 'drawn' edges already taken
+        Random rnd = new Random(seed);
+        long mask = 0;
+        for (int i = 0; i < Math.min(drawn, edges); i++) {
+            int e;
+            do { e = rnd.nextInt(edges); } while ((mask >>> e & 1) != 0);
+            mask |= 1L << e;
+        }
+
+        new ParallelDotsAndBoxesSolver(rows, cols, 1, new DotsAndBoxesTable(22)).solve(mask, Long.MAX_VALUE); // JIT warm-up
+        System.out.println("# threads\tvalue\tnodes\tms\tspeedup");
+        long baseline = 0;
+        for (int t = 1; t <= Math.max(1, maxThreads); t *= 2) {
+            ParallelDotsAndBoxesSolver smp = new ParallelDotsAndBoxesSolver(rows, cols, t, new DotsAndBoxesTable(22));
+            long start = System.nanoTime();
+            int value = smp.solve(mask, Long.MAX_VALUE);
+            long ms = Math.max(1, (System.nanoTime() - start) / 1_000_000L);
+            if (t == 1) baseline = ms;
+            System.out.printf("%d\t%s\t%d\t%d\t%.2f%n", t, smp.aborted() ? "-" : Integer.toString(value),
+                    smp.nodes(), ms, (double) baseline / ms);
+        }
+        System.out.println("# " + Runtime.getRuntime().availableProcessors() + " hardware threads available");
+    }
+}
@@ -1,9 +1,15 @@
 package quoridor;
 
+import common.CommandResult;
 import common.Game;
 import common.player.Player;
+import common.gameUtils.GameRecorder;
+import common.gameUtils.GameSave;
+import common.gameUtils.ReplayView;
 import common.gameUtils.Score;
 import common.gameUtils.Timer;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Scanner;
 
 /**
@@ -14,9 +20,35 @@ import java.util.Scanner;
 public class Quoridor extends Game {
     private QuoridorBoard board;
     private Player p1, p2, current;
+    private QuoridorEngine cpu;      // plays Player B when not null
+    private long cpuMillis = 2000;   // search budget per CPU move
+    private int size = QuoridorBoard.DEFAULT_SIZE;
+    private GameRecorder recorder;   // null when recording is unavailable
+    private GameSave save;           // checkpointed after every move
+    private long startMillis;        // play time so far is now - startMillis
+    private int moves;
+    private Score score;             // the hub's scores; null in headless games
 
     public Quoridor() { reset(); }
 
+    /* Launches Quoridor; a win is saved to the hub's scores */
+    public static void launchQuoridor(Score score) {
+        Quoridor game = new Quoridor();
+        game.score = score;
+        game.start();
+    }
+
+    /** Headless two-player game (no CPU, recording or save), driven through apply; A moves first. */
+    public Quoridor(int size, String nameA, String nameB) {
+        if (size < QuoridorBoard.MIN_SIZE || size > QuoridorBoard.MAX_SIZE)
+            throw new IllegalArgumentException("Board size must be " + QuoridorBoard.MIN_SIZE + ".." + QuoridorBoard.MAX_SIZE + ".");
+        this.size = size;
+        reset();
+        p1 = new Player(nameA, 1);
+        p2 = new Player(nameB, 2);
+        current = p1;
+    }
+
     @Override
     public void start() {
         Scanner sc = new Scanner(System.in);
@@ -24,17 +56,85 @@ public class Quoridor extends Game {
         System.out.print("Enter Player A name: ");
         String n1 = sc.nextLine().trim();
         if (n1.isEmpty()) n1 = "PlayerA";
-        System.out.print("Enter Player B name: ");
-        String n2 = sc.nextLine().trim();
-        if (n2.isEmpty()) n2 = "PlayerB";
+        System.out.print("Board size (" + QuoridorBoard.MIN_SIZE + "-" + QuoridorBoard.MAX_SIZE + ", default " + QuoridorBoard.DEFAULT_SIZE + "): ");
+        String s = sc.nextLine().trim();
+        try {
+            size = s.isEmpty() ? QuoridorBoard.DEFAULT_SIZE : Integer.parseInt(s);
+            if (size < QuoridorBoard.MIN_SIZE || size > QuoridorBoard.MAX_SIZE) throw new NumberFormatException();
+        } catch (NumberFormatException e) {
+            System.out.println("Using " + QuoridorBoard.DEFAULT_SIZE + "x" + QuoridorBoard.DEFAULT_SIZE + ".");
+            size = QuoridorBoard.DEFAULT_SIZE;
+        }
+        reset();
+        System.out.print("Play against the CPU? (y/N): ");
+        boolean vsCpu = sc.nextLine().trim().equalsIgnoreCase("y");
+        String n2 = "CPU";
+        cpu = null;
+        if (vsCpu) {
+            System.out.print("CPU time per move in seconds (default 2): ");
+            String t = sc.nextLine().trim();
+            try {
+                if (!t.isEmpty()) cpuMillis = Math.max(100, (long) (Double.parseDouble(t) * 1000));
+            } catch (NumberFormatException e) {
+                System.out.println("Using 2 seconds.");
+                cpuMillis = 2000;
+            }
+            System.out.print("CPU engine: 1) alpha-beta  2) Monte Carlo tree search (default 1): ");
+            cpu = sc.nextLine().trim().equals("2") ? new QuoridorMCTS() : new QuoridorAI();
+        } else {
+            System.out.print("Enter Player B name: ");
+            n2 = sc.nextLine().trim();
+            if (n2.isEmpty()) n2 = "PlayerB";
+        }
 
         p1 = new Player(n1, 1);
         p2 = new Player(n2, 2);
         current = p1;
-        Score score = new Score();
-        long start = System.currentTimeMillis();
+        save = GameSave.create(GameRecorder.QUORIDOR, size, size, new String[] { n1, n2 });
+        play(sc, 0, 0);
+    }
+
+    /** Continues a saved game with its players and CPU settings; throws IllegalArgumentException if the state does not fit. */
+    public void resume(Score score, GameSave.Info info, byte[] state) {
+        if (state.length < 6 || state[0] < 0 || state[0] > 2 || (state[5] != 0 && state[5] != 1))
+            throw new IllegalArgumentException("Saved Quoridor state is malformed.");
+        size = info.rows;
+        reset();
+        board.restore(Arrays.copyOfRange(state, 6, state.length));
+        cpu = state[0] == 0 ? null : state[0] == 2 ? new QuoridorMCTS() : new QuoridorAI();
+        cpuMillis = Math.max(100, ByteBuffer.wrap(state, 1, 4).getInt());
+        String[] names = info.players();
+        p1 = new Player(names[0], 1);
+        p2 = new Player(names[1], 2);
+        current = state[5] == 0 ? p1 : p2;
+        save = GameSave.reopen(info);
+        this.score = score;
+        play(new Scanner(System.in), info.elapsedMillis, info.moves);
+    }
+
+    /* Game loop from the current board; records every move and checkpoints it to the save slot */
+    private void play(Scanner sc, long elapsedMillis, int movesSoFar) {
+        moves = movesSoFar;
+        startMillis = System.currentTimeMillis() - elapsedMillis;
+        recorder = GameRecorder.start(GameRecorder.QUORIDOR, size, size,
+                new String[] { p1.getName(), p2.getName() }, snapshot(current.getId() - 1));
+        checkpoint();
 
         while (true) {
+            if (cpu != null && current == p2) {
+                int move = cpu.chooseMove(board, 1, cpuMillis);
+                board.applyMove(1, move);
+                record(move, 0);
+                System.out.println(p2.getName() + " plays " + QuoridorMove.toString(move) + " (" + cpu.stats() + ")");
+                if (board.isSolved()) {
+                    System.out.println(board.displayBoard());
+                    System.out.println("Winner: " + p2.getName());
+                    break;
+                }
+                current = p1;
+                checkpoint();
+                continue;
+            }
             System.out.println(board.displayBoard());
             System.out.printf("A -> %s\n", p1.getName());
             System.out.printf("B -> %s\n\n", p2.getName());
@@ -45,34 +145,111 @@ public class Quoridor extends Game {
             System.out.println("V r c -> Place vertical wall left and bottom-left of box [r,c]");
             System.out.println("S -> Show board");
             System.out.println("Q -> Q to Main Menu");
-            String cmd = sc.next().toUpperCase();
-
-            if (cmd.equals("Q")) break;
-
-            if (cmd.equals("M")) {
-                int r = sc.nextInt(), c = sc.nextInt();
-                if (board.movePawn(current.getId() - 1, r, c)) {
-                    if (board.isSolved()) {
-                        long time = (System.currentTimeMillis() - start) / 1000;
-                        String formatted = Timer.formatTime(time);
-                        System.out.println("Winner: " + current.getName() + " in " + formatted);
-                        score.saveScore(current.getName(), "Quoridor", formatted, current.getName());
-                        break;
-                    }
-                    current = (current == p1) ? p2 : p1;
-                } else System.out.println("Illegal move.");
-            } else if (cmd.equals("H") || cmd.equals("V")) {
-                char ori = cmd.charAt(0);
-                int r = sc.nextInt(), c = sc.nextInt();
-                if (board.placeWall(current.getId() - 1, ori, r, c))
-                    current = (current == p1) ? p2 : p1;
-                else System.out.println("Invalid wall placement.");
+            CommandResult result = apply(sc.nextLine());
+            if (result.status == CommandResult.Status.QUIT) break;
+            if (result.status == CommandResult.Status.FINISHED) {
+                long millis = System.currentTimeMillis() - startMillis;
+                String formatted = Timer.formatTime(millis / 1000);
+                System.out.println(result.message + " in " + formatted);
+                if (score != null) score.saveScore(current.getName(), "Quoridor", millis, current.getName());
+                break;
             }
+            if (!result.message.isEmpty()) System.out.println(result.message);
+        }
+        if (recorder != null) recorder.close();
+        recorder = null;
+        if (board.isSolved()) save.delete();
+        else if (save.save(saveState(), System.currentTimeMillis() - startMillis, moves))
+            System.out.println("Game saved; continue it with Resume in the main menu.");
+    }
+
+    /**
+     * One line of the game loop: "M r c", "H r c", "V r c", "S" (nothing to do, the loop shows the board) or "Q".
+     * On a win current stays the winner.
+     */
+    @Override
+    public CommandResult apply(String command) {
+        String[] parts = command.trim().toUpperCase().split("\\s+");
+        String cmd = parts[0];
+        if (cmd.equals("Q")) return CommandResult.quit("");
+        if (board.isSolved()) return CommandResult.rejected("Game is over.");
+        if (cmd.equals("S") && parts.length == 1) return CommandResult.info("");
+        if (cpu != null && current == p2) return CommandResult.rejected("Waiting for " + p2.getName() + ".");
+
+        boolean pawn = cmd.equals("M");
+        if (!pawn && !cmd.equals("H") && !cmd.equals("V") || parts.length != 3) return CommandResult.rejected("Invalid command.");
+        int r, c;
+        try {
+            r = Integer.parseInt(parts[1]);
+            c = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return CommandResult.rejected("Invalid command.");
+        }
+        if (pawn) {
+            if (!board.movePawn(current.getId() - 1, r, c)) return CommandResult.rejected("Illegal move.");
+            record(QuoridorMove.pawn(r, c), 2 - current.getId());
+            if (board.isSolved()) return CommandResult.finished("Winner: " + current.getName());
+        } else {
+            char ori = cmd.charAt(0);
+            if (!board.placeWall(current.getId() - 1, ori, r, c)) return CommandResult.rejected("Invalid wall placement.");
+            record(QuoridorMove.wall(ori, r, c), 2 - current.getId());
         }
+        current = (current == p1) ? p2 : p1;
+        checkpoint();
+        return CommandResult.moved();
     }
 
+    /* Save state: CPU engine (0 none, 1 alpha-beta, 2 MCTS), CPU millis per move, then the recording snapshot */
+    private byte[] saveState() {
+        byte[] snap = snapshot(current.getId() - 1);
+        int kind = cpu == null ? 0 : cpu instanceof QuoridorMCTS ? 2 : 1;
+        return ByteBuffer.allocate(5 + snap.length).put((byte) kind).putInt((int) Math.min(cpuMillis, Integer.MAX_VALUE))
+                .put(snap).array();
+    }
+
+    private void checkpoint() {
+        if (save != null) save.save(saveState(), System.currentTimeMillis() - startMillis, moves);
+    }
+
+    /* Counts a move and records it: move code = QuoridorMove.compact; snapshots are the side to move (pid) followed by the board */
+    private void record(int move, int nextPid) {
+        moves++;
+        if (recorder != null) recorder.move(QuoridorMove.compact(move, size), () -> snapshot(nextPid));
+    }
+
+    private byte[] snapshot(int pid) {
+        byte[] b = board.snapshot();
+        byte[] data = new byte[b.length + 1];
+        data[0] = (byte) pid;
+        System.arraycopy(b, 0, data, 1, b.length);
+        return data;
+    }
+
+    /* Replay of a recording; describe names the player who made the move */
+    public static ReplayView replayView(int size, String[] players) {
+        QuoridorBoard b = new QuoridorBoard(size);
+        int[] side = new int[1];
+        return new ReplayView() {
+            @Override public void restore(byte[] snapshot) {
+                side[0] = snapshot[0];
+                b.restore(Arrays.copyOfRange(snapshot, 1, snapshot.length));
+            }
+            @Override public void apply(int move) {
+                b.applyMove(side[0], QuoridorMove.fromCompact(move, size));
+                side[0] ^= 1;
+            }
+            @Override public String describe(int move) {
+                return players[side[0] ^ 1] + ": " + QuoridorMove.toString(QuoridorMove.fromCompact(move, size));
+            }
+            @Override public String render() { return b.displayBoard(); }
+        };
+    }
+
+    @Override
+    public int currentSide() { return current == null ? 1 : current.getId(); }
+
     @Override
-    public void reset() { board = new QuoridorBoard(); }
+    public void reset() { board = new QuoridorBoard(size); }
 
     @Override
     public String state() { return board.displayBoard(); }
@@ -0,0 +1,160 @@
+package quoridor;
+
+/**
+ * Computer opponent for Quoridor: iterative-deepening negamax with alpha-beta.
+ * - Searches in place with makeMove/unmakeMove, no board copies
+ * - Zobrist-keyed TranspositionTable for cutoffs and move ordering
+ * - Stops at the time budget and plays the best move of the deepest finished iteration
+ * - Evaluation: shortest-path race (incremental distance maps) plus walls in hand
+ */
+public class QuoridorAI implements QuoridorEngine {
+    public static final int WIN = 30_000;
+    private static final int MAX_PLY = 64;
+    private static final int MAX_EVAL = WIN - MAX_PLY - 1;   // heuristic scores stay below the win band
+
+    private final TranspositionTable table;
+    private int[][] moves = new int[MAX_PLY][0];   // per-ply buffers, resized to the board on first use
+    private int[][] order = new int[MAX_PLY][0];
+    private QuoridorBoard board;
+    private long deadline, nodes;
+    private boolean timeUp;
+
+    // stats of the last search
+    private int lastDepth, lastScore;
+    private long lastNodes, lastNanos;
+
+    public QuoridorAI() { this(20); }
+
+    public QuoridorAI(int log2TableSize) { this.table = new TranspositionTable(log2TableSize); }
+
+    /** Best move for pid within timeMillis (always returns a legal move while the game is running). */
+    @Override
+    public int chooseMove(QuoridorBoard board, int pid, long timeMillis) {
+        this.board = board;
+        if (moves[0].length < board.maxMoves()) {
+            moves = new int[MAX_PLY][board.maxMoves()];
+            order = new int[MAX_PLY][board.maxMoves()];
+        }
+        long start = System.nanoTime();
+        deadline = start + timeMillis * 1_000_000L;
+        nodes = 0;
+        timeUp = false;
+        table.newSearch();
+
+        int n = board.legalMoves(pid, moves[0]);
+        int best = n > 0 ? moves[0][0] : QuoridorMove.NONE;
+        lastDepth = 0;
+        lastScore = 0;
+        for (int depth = 1; depth < MAX_PLY && n > 1; depth++) {
+            int score = search(pid, depth, 0, -WIN - 1, WIN + 1);
+            if (timeUp) break;
+            long data = table.probe(key(pid));
+            if (data != 0) best = TranspositionTable.move(data);
+            lastDepth = depth;
+            lastScore = score;
+            if (Math.abs(score) >= WIN - MAX_PLY) break;   // forced result found
+        }
+        lastNodes = nodes;
+        lastNanos = System.nanoTime() - start;
+        return best;
+    }
+
+    public int lastDepth() { return lastDepth; }
+    public int lastScore() { return lastScore; }
+    public long lastNodes() { return lastNodes; }
+    public long nodesPerSecond() { return lastNanos == 0 ? 0 : lastNodes * 1_000_000_000L / lastNanos; }
+
+    @Override
+    public String stats() {
+        return String.format("depth %d, score %d, %,d nodes in %d ms (%,d nodes/sec)",
+                lastDepth, lastScore, lastNodes, lastNanos / 1_000_000, nodesPerSecond());
+    }
+
+    private long key(int pid) { return pid == 0 ? board.hash() : board.hash() ^ board.sideToMoveKey(); }
+
+    private int search(int pid, int depth, int ply, int alpha, int beta) {
+        if ((++nodes & 1023) == 0 && System.nanoTime() > deadline) timeUp = true;
+        if (timeUp) return 0;
+        if (board.winner() >= 0) return board.winner() == pid ? WIN - ply : -(WIN - ply);
+        if (depth == 0 || ply == MAX_PLY - 1) return evaluate(pid);
+
+        long key = key(pid);
+        long data = table.probe(key);
+        int ttMove = QuoridorMove.NONE;
+        if (data != 0) {
+            ttMove = TranspositionTable.move(data);
+            if (ply > 0 && TranspositionTable.depth(data) >= depth) {
+                int s = fromTable(TranspositionTable.score(data), ply), flag = TranspositionTable.flag(data);
+                if (flag == TranspositionTable.EXACT
+                        || (flag == TranspositionTable.LOWER && s >= beta)
+                        || (flag == TranspositionTable.UPPER && s <= alpha)) return s;
+            }
+        }
+
+        int[] list = moves[ply];
+        int n = board.legalMoves(pid, list);
+        orderMoves(pid, list, n, ttMove, order[ply]);
+
+        int alpha0 = alpha, best = -WIN - 1, bestMove = QuoridorMove.NONE;
+        for (int i = 0; i < n; i++) {
+            int m = list[i];
+            if (!board.makeMove(pid, m)) continue;
+            int s = -search(1 - pid, depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (timeUp) return 0;
+            if (s > best) { best = s; bestMove = m; }
+            if (s > alpha) alpha = s;
+            if (alpha >= beta) break;
+        }
+        if (bestMove == QuoridorMove.NONE) return evaluate(pid);
+
+        int flag = best <= alpha0 ? TranspositionTable.UPPER : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+        table.store(key, bestMove, toTable(best, ply), depth, flag);
+        return best;
+    }
+
+    /* Win scores count plies from the root; the table keeps them relative to the stored node instead. */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score + ply;
+        if (score <= -(WIN - MAX_PLY)) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN - MAX_PLY) return score - ply;
+        if (score <= -(WIN - MAX_PLY)) return score + ply;
+        return score;
+    }
+
+    /* Distance race from pid's side; a move ahead is worth about half a step. Clamped for big boards. */
+    private int evaluate(int pid) {
+        int opp = 1 - pid;
+        int race = board.distanceToGoal(opp) - board.distanceToGoal(pid);
+        int walls = board.wallsLeft(pid) - board.wallsLeft(opp);
+        return Math.max(-MAX_EVAL, Math.min(MAX_EVAL, race * 100 + walls * 30 + 50));
+    }
+
+    /*
+     * TT move first, then pawn steps that shorten pid's path, then walls close to the opponent
+     * (they are the ones that can lengthen its path), then the rest. Insertion sort on small keys.
+     */
+    private void orderMoves(int pid, int[] list, int n, int ttMove, int[] keys) {
+        int opp = 1 - pid;
+        int or = board.pawnRow(opp), oc = board.pawnCol(opp);
+        int here = board.distanceToGoal(pid);
+        for (int i = 0; i < n; i++) {
+            int m = list[i], k;
+            int r = QuoridorMove.row(m), c = QuoridorMove.col(m);
+            if (m == ttMove) k = 0;
+            else if (!QuoridorMove.isWall(m)) k = board.distanceToGoal(pid, r, c) < here ? 1 : 40;
+            else k = 2 + Math.max(Math.abs(r - or), Math.abs(c - oc));
+            keys[i] = k;
+        }
+        for (int i = 1; i < n; i++) {
+            int m = list[i], k = keys[i], j = i - 1;
+            while (j >= 0 && keys[j] > k) { list[j + 1] = list[j]; keys[j + 1] = keys[j]; j--; }
+            list[j + 1] = m;
+            keys[j + 1] = k;
+        }
+    }
+}
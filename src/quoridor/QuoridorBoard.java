@@ -1,45 +1,191 @@
 package quoridor;
 
 import common.Board;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 /**
- * Quoridor board (9x9).
+ * Quoridor board (n x n, 5 <= n <= 61; 9 by default).
  * - Uses PawnPiece for players
- * - Uses WallTile (extends Tile) for walls
- * - Each wall covers TWO cells (horizontal or vertical)
- * - Automatically checks if wall blocks all paths using BFS
+ * - Walls and blocked edges are bitboards: one long per board row, bit c = column c
+ * - Each wall covers TWO cells (horizontal or vertical); WallTile is only built as a view for rendering
+ * - Keeps a distance-to-goal map per player; a wall only triggers a new BFS when it cuts
+ *   an edge on that player's shortest-path DAG (queues and maps are preallocated)
  * - Rolls back illegal placements
  */
 public class QuoridorBoard extends Board<String> {
 
-    public static final int N = 9;
+    public static final int DEFAULT_SIZE = 9;
+    public static final int MIN_SIZE = 5;
+    public static final int MAX_SIZE = 61;   // a row plus its guard bits must fit in one long
 
+    private final int n;
     private final PawnPiece[] pawns = new PawnPiece[2];
-    private final Set<String> blocked = new HashSet<>();
-    private final List<WallTile> walls = new ArrayList<>();
-    private final int[] wallsLeft = {10, 10};
+    private final int[] wallsLeft = new int[2];
 
-    private static final String RESET = "\u001B[0m";
-    private static final String RED   = "\u001B[31m";
-    private static final String BLUE  = "\u001B[34m";
-    private static final String YEL   = "\u001B[33m";
-    private static final String GRAY  = "\u001B[37m";
+    // Wall anchors: hWalls[r] bit c = horizontal wall "H r c", vWalls[r] bit c = vertical wall "V r c"
+    private final long[] hWalls;
+    private final long[] vWalls;
+    // Blocked edges: downBlocked[r] bit c = (r,c)-(r+1,c), rightBlocked[r] bit c = (r,c)-(r,c+1)
+    private final long[] downBlocked;
+    private final long[] rightBlocked;
+    // Walls touching each grid point (post), (n+1) x (n+1); a new wall can only cut a path if it touches twice
+    private final byte[] posts;
 
-    private static final String H_WALL = "=====";
-    private static final String H_EMPTY = "-----";
-    private static final int CELL_W = 5;
+    // Distance maps: dist[pid][cell] = steps to that player's goal row, cell = (r-1)*n + (c-1)
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+    private int[][] dist;
+    private int[][] scratch;
+    private final int[] queue;
+    private int lastRedo;   // players whose map was recomputed by the last committed wall (bit per pid)
 
-    public QuoridorBoard() {
-        pawns[0] = new PawnPiece(null, 1, 5, "A");
-        pawns[1] = new PawnPiece(null, 9, 5, "B");
+    // Zobrist hash of pawns, walls and walls left (side to move is left to the caller)
+    private final Zobrist zobrist;
+    private long hash;
+
+    // Undo stack for makeMove/unmakeMove; grows on demand and is reused afterwards
+    private int undoTop;
+    private int[] undoMove = new int[64], undoPid = new int[64], undoInfo = new int[64];
+    private int[][][] undoDist = new int[64][][];
+
+    private QuoridorRenderer renderer;   // created by the first displayBoard
+
+    public QuoridorBoard() { this(DEFAULT_SIZE); }
+
+    /** Empty n x n board: pawns start mid-row on rows 1 and n, each player gets wallsFor(n) walls. */
+    public QuoridorBoard(int n) {
+        if (n < MIN_SIZE || n > MAX_SIZE)
+            throw new IllegalArgumentException("Board size must be between " + MIN_SIZE + " and " + MAX_SIZE + ".");
+        this.n = n;
+        hWalls = new long[n + 2];
+        vWalls = new long[n + 2];
+        downBlocked = new long[n + 2];
+        rightBlocked = new long[n + 2];
+        posts = new byte[(n + 1) * (n + 1)];
+        dist = new int[2][n * n];
+        scratch = new int[2][n * n];
+        queue = new int[n * n];
+        zobrist = Zobrist.forSize(n, wallsFor(n));
+        wallsLeft[0] = wallsLeft[1] = wallsFor(n);
+        pawns[0] = new PawnPiece(null, 1, (n + 1) / 2, "A");
+        pawns[1] = new PawnPiece(null, n, (n + 1) / 2, "B");
+        computeDistances(0, dist[0]);
+        computeDistances(1, dist[1]);
+        for (int pid = 0; pid < 2; pid++)
+            hash ^= zobrist.pawn[pid][cell(pawns[pid].getRow(), pawns[pid].getCol())] ^ zobrist.wallsLeft[pid][wallsLeft[pid]];
+    }
+
+    /** Copy constructor (position only; the undo history is not copied). */
+    public QuoridorBoard(QuoridorBoard other) {
+        this(other.n);
+        copyFrom(other);
+    }
+
+    /** Walls per player: 10 on the standard 9x9 board, scaled with the number of wall slots per row. */
+    public static int wallsFor(int n) { return (n - 1) * 5 / 4; }
+
+    public int size() { return n; }
+
+    /** Overwrites this position with other's without allocating; clears the undo history. */
+    public void copyFrom(QuoridorBoard other) {
+        if (other.n != n) throw new IllegalArgumentException("Boards differ in size.");
+        for (int pid = 0; pid < 2; pid++) {
+            pawns[pid].setPosition(other.pawns[pid].getRow(), other.pawns[pid].getCol());
+            wallsLeft[pid] = other.wallsLeft[pid];
+            System.arraycopy(other.dist[pid], 0, dist[pid], 0, n * n);
+        }
+        System.arraycopy(other.hWalls, 0, hWalls, 0, n + 2);
+        System.arraycopy(other.vWalls, 0, vWalls, 0, n + 2);
+        System.arraycopy(other.downBlocked, 0, downBlocked, 0, n + 2);
+        System.arraycopy(other.rightBlocked, 0, rightBlocked, 0, n + 2);
+        System.arraycopy(other.posts, 0, posts, 0, posts.length);
+        hash = other.hash;
+        undoTop = 0;
+    }
+
+    /**
+     * Compact position: both pawn cells (2 bytes each), walls left (1 byte each), then the H and V
+     * wall anchors as n*n-bit masks (bit (r-1)*n + (c-1)). 28 bytes on the standard board.
+     */
+    public byte[] snapshot() {
+        int maskBytes = (n * n + 7) >>> 3;
+        byte[] h = new byte[maskBytes], v = new byte[maskBytes];
+        for (int r = 1; r <= n; r++)
+            for (int c = 1; c <= n; c++) {
+                int i = cell(r, c);
+                if ((hWalls[r] >>> c & 1) != 0) h[i >>> 3] = (byte) (h[i >>> 3] | 1 << (i & 7));
+                if ((vWalls[r] >>> c & 1) != 0) v[i >>> 3] = (byte) (v[i >>> 3] | 1 << (i & 7));
+            }
+        ByteBuffer out = ByteBuffer.allocate(6 + 2 * maskBytes);
+        for (int pid = 0; pid < 2; pid++) out.putShort((short) cell(pawns[pid].getRow(), pawns[pid].getCol()));
+        out.put((byte) wallsLeft[0]).put((byte) wallsLeft[1]);
+        return out.put(h).put(v).array();
+    }
+
+    /** Loads a snapshot() of a board of this size; rebuilds edges, distance maps and hash, clears the undo history. */
+    public void restore(byte[] data) {
+        int maskBytes = (n * n + 7) >>> 3;
+        if (data.length != 6 + 2 * maskBytes) throw new IllegalArgumentException("Snapshot is not for a " + n + "x" + n + " board.");
+        ByteBuffer in = ByteBuffer.wrap(data);
+        int[] at = { in.getShort(), in.getShort() };
+        int[] left = { in.get(), in.get() };
+        for (int pid = 0; pid < 2; pid++)
+            if (at[pid] < 0 || at[pid] >= n * n || left[pid] < 0 || left[pid] > wallsFor(n))
+                throw new IllegalArgumentException("Snapshot has an invalid pawn or wall count.");
+        Arrays.fill(hWalls, 0);
+        Arrays.fill(vWalls, 0);
+        Arrays.fill(downBlocked, 0);
+        Arrays.fill(rightBlocked, 0);
+        Arrays.fill(posts, (byte) 0);
+        hash = 0;
+        for (int pid = 0; pid < 2; pid++) {
+            pawns[pid].setPosition(at[pid] / n + 1, at[pid] % n + 1);
+            wallsLeft[pid] = left[pid];
+            hash ^= zobrist.pawn[pid][at[pid]] ^ zobrist.wallsLeft[pid][left[pid]];
+        }
+        for (int i = 0; i < n * n; i++) {
+            int r = i / n + 1, c = i % n + 1;
+            if ((data[6 + (i >>> 3)] >>> (i & 7) & 1) != 0) addWall('H', r, c);
+            if ((data[6 + maskBytes + (i >>> 3)] >>> (i & 7) & 1) != 0) addWall('V', r, c);
+        }
+        computeDistances(0, dist[0]);
+        computeDistances(1, dist[1]);
+        if (dist[0][at[0]] == UNREACHABLE || dist[1][at[1]] == UNREACHABLE)
+            throw new IllegalArgumentException("Snapshot cuts a pawn off its goal.");
+        undoTop = 0;
+    }
+
+    /* Sets a wall without legality checks (restore); distance maps are left to the caller. */
+    private void addWall(char orientation, int r, int c) {
+        if (orientation == 'H' ? c == n : r == n) throw new IllegalArgumentException("Snapshot has a wall off the board.");
+        (orientation == 'H' ? hWalls : vWalls)[r] |= 1L << c;
+        setWallEdges(orientation, r, c, true);
+        touchPosts(orientation, r, c, 1);
+        hash ^= zobrist.wall(orientation, r, c);
     }
 
     @Override
     public boolean isSolved() {
-        return pawns[0].getRow() == N || pawns[1].getRow() == 1;
+        return pawns[0].getRow() == n || pawns[1].getRow() == 1;
     }
 
+    /** 0 or 1 once that player's pawn reached its goal row, else -1. */
+    public int winner() {
+        if (pawns[0].getRow() == n) return 0;
+        if (pawns[1].getRow() == 1) return 1;
+        return -1;
+    }
+
+    public int pawnRow(int pid) { return pawns[pid].getRow(); }
+    public int pawnCol(int pid) { return pawns[pid].getCol(); }
+    public int wallsLeft(int pid) { return wallsLeft[pid]; }
+
+    /** Zobrist hash of the position (without side to move). */
+    public long hash() { return hash; }
+
+    /** Key to XOR into hash() when player 1 is to move. */
+    public long sideToMoveKey() { return zobrist.sideToMove; }
+
     //  Move pawn
     public boolean movePawn(int pid, int r, int c) {
         if (!inBounds(r, c)) return false;
@@ -47,204 +193,349 @@ public class QuoridorBoard extends Board<String> {
         int dr = Math.abs(r - cr), dc = Math.abs(c - cc);
         if (dr + dc != 1) return false;
         if (isBlocked(cr, cc, r, c)) return false;
+        hash ^= zobrist.pawn[pid][cell(cr, cc)] ^ zobrist.pawn[pid][cell(r, c)];
         pawns[pid].setPosition(r, c);
         return true;
     }
 
-    //  Place wall (uses WallTile)
+    /** Plays an encoded QuoridorMove for pid (no undo record); false if illegal. */
+    public boolean applyMove(int pid, int move) {
+        int r = QuoridorMove.row(move), c = QuoridorMove.col(move);
+        if (!QuoridorMove.isWall(move)) return movePawn(pid, r, c);
+        return placeWall(pid, QuoridorMove.orientation(move), r, c);
+    }
+
+    /**
+     * Plays an encoded move and records what unmakeMove needs; false (and nothing recorded) if illegal.
+     * Saves the old distance maps only when the wall forced a recomputation.
+     */
+    public boolean makeMove(int pid, int move) {
+        if (undoTop == undoMove.length) growUndo();
+        int info;
+        if (!QuoridorMove.isWall(move)) {
+            info = cell(pawns[pid].getRow(), pawns[pid].getCol());
+            if (!movePawn(pid, QuoridorMove.row(move), QuoridorMove.col(move))) return false;
+        } else {
+            if (!placeWall(pid, QuoridorMove.orientation(move), QuoridorMove.row(move), QuoridorMove.col(move))) return false;
+            info = lastRedo;
+            for (int p = 0; p < 2; p++) {
+                if ((info >>> p & 1) == 0) continue;
+                if (undoDist[undoTop] == null) undoDist[undoTop] = new int[2][n * n];
+                // after the swap, scratch holds the map from before this wall
+                System.arraycopy(scratch[p], 0, undoDist[undoTop][p], 0, n * n);
+            }
+        }
+        undoMove[undoTop] = move;
+        undoPid[undoTop] = pid;
+        undoInfo[undoTop] = info;
+        undoTop++;
+        return true;
+    }
+
+    /** Takes back the last makeMove (no BFS: saved maps are copied back). */
+    public void unmakeMove() {
+        int top = --undoTop;
+        int move = undoMove[top], pid = undoPid[top], info = undoInfo[top];
+        if (!QuoridorMove.isWall(move)) {
+            int r = info / n + 1, c = info % n + 1;
+            hash ^= zobrist.pawn[pid][cell(pawns[pid].getRow(), pawns[pid].getCol())] ^ zobrist.pawn[pid][info];
+            pawns[pid].setPosition(r, c);
+            return;
+        }
+        char o = QuoridorMove.orientation(move);
+        int r = QuoridorMove.row(move), c = QuoridorMove.col(move);
+        (o == 'H' ? hWalls : vWalls)[r] &= ~(1L << c);
+        setWallEdges(o, r, c, false);
+        touchPosts(o, r, c, -1);
+        hash ^= zobrist.wall(o, r, c) ^ zobrist.wallsLeft[pid][wallsLeft[pid]] ^ zobrist.wallsLeft[pid][wallsLeft[pid] + 1];
+        wallsLeft[pid]++;
+        for (int p = 0; p < 2; p++)
+            if ((info >>> p & 1) != 0) System.arraycopy(undoDist[top][p], 0, dist[p], 0, n * n);
+    }
+
+    private void growUndo() {
+        int size = undoMove.length * 2;
+        undoMove = Arrays.copyOf(undoMove, size);
+        undoPid = Arrays.copyOf(undoPid, size);
+        undoInfo = Arrays.copyOf(undoInfo, size);
+        undoDist = Arrays.copyOf(undoDist, size);
+    }
+
+    /** Writes every legal move for pid into buf (needs maxMoves() slots) and returns the count. */
+    public int legalMoves(int pid, int[] buf) {
+        int count = pawnMoves(pid, buf, 0);
+        return wallMoves(pid, buf, count);
+    }
+
+    /** Appends pid's legal pawn steps to buf at from; returns the new count. */
+    public int pawnMoves(int pid, int[] buf, int from) {
+        int count = from;
+        int r = pawns[pid].getRow(), c = pawns[pid].getCol();
+        if (r > 1 && (downBlocked[r - 1] >>> c & 1) == 0) buf[count++] = QuoridorMove.pawn(r - 1, c);
+        if (r < n && (downBlocked[r] >>> c & 1) == 0) buf[count++] = QuoridorMove.pawn(r + 1, c);
+        if (c > 1 && (rightBlocked[r] >>> (c - 1) & 1) == 0) buf[count++] = QuoridorMove.pawn(r, c - 1);
+        if (c < n && (rightBlocked[r] >>> c & 1) == 0) buf[count++] = QuoridorMove.pawn(r, c + 1);
+        return count;
+    }
+
+    /**
+     * Appends pid's legal wall placements to buf at from; returns the new count.
+     * Overlaps are masked out a whole row at a time; only the surviving slots get the path check.
+     */
+    public int wallMoves(int pid, int[] buf, int from) {
+        int count = from;
+        if (wallsLeft[pid] == 0) return count;
+        long cols = ((1L << (n - 1)) - 1) << 1;   // anchor columns 1..n-1
+        for (int r = 1; r <= n; r++) {
+            long free = cols & ~(hWalls[r] | hWalls[r] << 1 | hWalls[r] >>> 1);
+            for (int vr = Math.max(0, r - 2); vr <= r; vr++) free &= ~(vWalls[vr] | vWalls[vr] >>> 1 | vWalls[vr] >>> 2);
+            for (; free != 0; free &= free - 1) {
+                int c = Long.numberOfTrailingZeros(free);
+                if (canPlaceWall(pid, 'H', r, c)) buf[count++] = QuoridorMove.wall('H', r, c);
+            }
+        }
+        cols = ((1L << n) - 1) << 1;             // anchor columns 1..n
+        for (int r = 1; r < n; r++) {
+            long free = cols & ~(vWalls[r - 1] | vWalls[r] | vWalls[r + 1]);
+            for (int hr = r; hr <= r + 2; hr++) free &= ~(hWalls[hr] << 1 | hWalls[hr] << 2 | hWalls[hr]);
+            for (; free != 0; free &= free - 1) {
+                int c = Long.numberOfTrailingZeros(free);
+                if (canPlaceWall(pid, 'V', r, c)) buf[count++] = QuoridorMove.wall('V', r, c);
+            }
+        }
+        return count;
+    }
+
+    /** Buffer size that always fits legalMoves. */
+    public int maxMoves() { return 4 + 2 * n * (n - 1); }
+
+    //  Place wall: overlap checks are mask tests against the neighbouring rows
     public boolean placeWall(int pid, char orientation, int r, int c) {
+        return tryWall(pid, orientation, r, c, true);
+    }
+
+    /** Same legality test as placeWall, without changing the board (cheap unless the wall cuts a shortest path). */
+    public boolean canPlaceWall(int pid, char orientation, int r, int c) {
+        return tryWall(pid, orientation, r, c, false);
+    }
+
+    /** Removes an existing wall and gives it back to pid; distance maps are refreshed only if the opened edges shorten a path. */
+    public boolean removeWall(int pid, char orientation, int r, int c) {
+        long[] anchors = orientation == 'H' ? hWalls : vWalls;
+        if (r < 1 || r > n || c < 1 || c > n || (anchors[r] >>> c & 1) == 0) return false;
+        anchors[r] &= ~(1L << c);
+        setWallEdges(orientation, r, c, false);
+        touchPosts(orientation, r, c, -1);
+        for (int p = 0; p < 2; p++) {
+            int[] d = dist[p];
+            if (loose(d, orientation, r, c)) computeDistances(p, d);
+        }
+        hash ^= zobrist.wall(orientation, r, c) ^ zobrist.wallsLeft[pid][wallsLeft[pid]] ^ zobrist.wallsLeft[pid][wallsLeft[pid] + 1];
+        wallsLeft[pid]++;
+        return true;
+    }
+
+    private boolean tryWall(int pid, char orientation, int r, int c, boolean commit) {
         if (wallsLeft[pid] <= 0) return false;
         if (!(orientation == 'H' || orientation == 'V')) return false;
         // In these two condition the second placed wall will be out of bound
-        if (orientation == 'H' && c == N) return false;
-        if (orientation == 'V' && r == N) return false;
+        if (orientation == 'H' && c == n) return false;
+        if (orientation == 'V' && r == n) return false;
 
         // Prevention of out of bound wall placements
-        if (!(1 <= r && r <= N && 1 <= c && c <= N)) return false;
-
-        List<String> newEdges = new ArrayList<>();
-        List<WallTile> newTiles = new ArrayList<>();
+        if (!(1 <= r && r <= n && 1 <= c && c <= n)) return false;
 
         if (orientation == 'H') {
-            for (WallTile wall : walls) {
-                if (wall.isHorizontal()) {
-                    if (wall.getRow() == r && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r && wall.getCol() == c + 1)
-                        return false;
-                }
-                else {
-                    // All conditions to prevent horizontal wall from touching any vertical walls
-                    if (wall.getRow() == r - 1 && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r - 1 && wall.getCol() == c + 1)
-                        return false;
-                    if (wall.getRow() == r && wall.getCol() == c + 1)
-                        return false;
-                    if (wall.getRow() == r - 1 && wall.getCol() == c + 2)
-                        return false;
-                    if (wall.getRow() == r && wall.getCol() == c + 2)
-                        return false;
-                }
-            }
+            // horizontal walls at columns c-1..c+1 of the same row would share a segment
+            if ((hWalls[r] & span3(c - 1)) != 0) return false;
+            // vertical walls anchored in rows r-2..r and columns c..c+2 would cross or touch it
+            for (int vr = Math.max(0, r - 2); vr <= r; vr++)
+                if ((vWalls[vr] & span3(c)) != 0) return false;
             // Horizontal wall blocks up-down between (r-1,c)-(r,c) and (r-1,c+1)-(r,c+1)
-            newEdges.add(edge(r - 1, c, r, c));
-            newEdges.add(edge(r - 1, c + 1, r, c + 1));
-            newTiles.add(new WallTile(r, c, true));
-            newTiles.add(new WallTile(r, c + 1, true));
+            if ((downBlocked[r - 1] & (3L << c)) != 0) return false;
         } else {
-            for (WallTile wall : walls) {
-                if (wall.isHorizontal()) {
-                    // All conditions to prevent vertical wall from touching any horizontal walls
-                    if (wall.getRow() == r && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r && wall.getCol() == c - 1)
-                        return false;
-                    if (wall.getRow() == r + 1 && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r + 1 && wall.getCol() == c - 1)
-                        return false;
-                    if (wall.getRow() == r + 2 && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r + 2 && wall.getCol() == c - 1)
-                        return false;
-                }
-                else {
-                    if (wall.getRow() == r && wall.getCol() == c)
-                        return false;
-                    if (wall.getRow() == r + 1 && wall.getCol() == c)
-                        return false;
-                }
-            }
+            // vertical walls at rows r-1..r+1 of the same column would share a segment
+            for (int vr = r - 1; vr <= r + 1; vr++)
+                if ((vWalls[vr] & (1L << c)) != 0) return false;
+            // horizontal walls anchored in rows r..r+2 and columns c-2..c would cross or touch it
+            for (int hr = r; hr <= r + 2; hr++)
+                if ((hWalls[hr] & span3(c - 2)) != 0) return false;
             // Vertical wall blocks left-right between (r,c-1)-(r,c) and (r+1,c-1)-(r+1,c)
-            newEdges.add(edge(r, c - 1, r, c));
-            newEdges.add(edge(r + 1, c - 1, r + 1, c));
-            newTiles.add(new WallTile(r, c, false));
-            newTiles.add(new WallTile(r + 1, c, false));
+            long edge = 1L << (c - 1);
+            if ((rightBlocked[r] & edge) != 0 || (rightBlocked[r + 1] & edge) != 0) return false;
         }
 
-        for (String e : newEdges)
-            if (blocked.contains(e)) return false;
-        blocked.addAll(newEdges);
-
-        if (!pathsRemain()) {
-            blocked.removeAll(newEdges);
-            return false;
+        setWallEdges(orientation, r, c, true);
+        boolean ok = refreshAfterBlock(orientation, r, c, commit);
+        if (!ok || !commit) {
+            setWallEdges(orientation, r, c, false);
+            return ok;
         }
-
-        walls.addAll(newTiles);
+        (orientation == 'H' ? hWalls : vWalls)[r] |= 1L << c;
+        touchPosts(orientation, r, c, 1);
+        hash ^= zobrist.wall(orientation, r, c) ^ zobrist.wallsLeft[pid][wallsLeft[pid]] ^ zobrist.wallsLeft[pid][wallsLeft[pid] - 1];
         wallsLeft[pid]--;
         return true;
     }
 
-    private boolean pathsRemain() { return hasPath(0) && hasPath(1); }
+    private void setWallEdges(char orientation, int r, int c, boolean blocked) {
+        if (orientation == 'H') {
+            long edges = 3L << c;
+            downBlocked[r - 1] = blocked ? downBlocked[r - 1] | edges : downBlocked[r - 1] & ~edges;
+        } else {
+            long edge = 1L << (c - 1);
+            rightBlocked[r] = blocked ? rightBlocked[r] | edge : rightBlocked[r] & ~edge;
+            rightBlocked[r + 1] = blocked ? rightBlocked[r + 1] | edge : rightBlocked[r + 1] & ~edge;
+        }
+    }
 
-    private boolean hasPath(int pid) {
-        int goal = (pid == 0) ? N : 1;
-        boolean[][] vis = new boolean[N + 1][N + 1];
-        Queue<int[]> q = new ArrayDeque<>();
-        q.add(new int[]{pawns[pid].getRow(), pawns[pid].getCol()});
-        vis[pawns[pid].getRow()][pawns[pid].getCol()] = true;
+    /* Adds delta to the three posts (grid points) of a wall. */
+    private void touchPosts(char orientation, int r, int c, int delta) {
+        for (int i = 0; i < 3; i++) {
+            int p = post(orientation, r, c, i);
+            posts[p] = (byte) (posts[p] + delta);
+        }
+    }
+
+    /* Posts of the wall already touching the border or another wall. */
+    private int contacts(char orientation, int r, int c) {
+        int count = 0;
+        for (int i = 0; i < 3; i++) {
+            int p = post(orientation, r, c, i), pi = p / (n + 1), pj = p % (n + 1);
+            if (posts[p] != 0 || pi == 0 || pi == n || pj == 0 || pj == n) count++;
+        }
+        return count;
+    }
 
-        while (!q.isEmpty()) {
-            int[] u = q.poll();
-            if (u[0] == goal) return true;
-            for (int[] v : neighbors(u[0], u[1])) {
-                if (!vis[v[0]][v[1]] && !isBlocked(u[0], u[1], v[0], v[1])) {
-                    vis[v[0]][v[1]] = true;
-                    q.add(v);
+    /* Post i (0..2) of a wall: H r c lies on grid line r-1, V r c on grid column c-1. */
+    private int post(char orientation, int r, int c, int i) {
+        return orientation == 'H' ? (r - 1) * (n + 1) + (c - 1 + i) : (r - 1 + i) * (n + 1) + (c - 1);
+    }
+
+    /* Three adjacent column bits starting at 'from' (bits below column 0 are dropped). */
+    private static long span3(int from) { return (7L << (from + 2)) >>> 2; }
+
+    /** Wall segments as WallTile views (two per wall), for rendering or debugging. */
+    public List<WallTile> wallTiles() {
+        List<WallTile> tiles = new ArrayList<>();
+        for (int r = 1; r <= n; r++)
+            for (int c = 1; c <= n; c++) {
+                if ((hWalls[r] >>> c & 1) != 0) {
+                    tiles.add(new WallTile(r, c, true));
+                    tiles.add(new WallTile(r, c + 1, true));
+                }
+                if ((vWalls[r] >>> c & 1) != 0) {
+                    tiles.add(new WallTile(r, c, false));
+                    tiles.add(new WallTile(r + 1, c, false));
                 }
             }
-        }
-        return false;
+        return tiles;
     }
 
-    private List<int[]> neighbors(int r, int c) {
-        List<int[]> res = new ArrayList<>(4);
-        if (inBounds(r - 1, c)) res.add(new int[]{r - 1, c});
-        if (inBounds(r + 1, c)) res.add(new int[]{r + 1, c});
-        if (inBounds(r, c - 1)) res.add(new int[]{r, c - 1});
-        if (inBounds(r, c + 1)) res.add(new int[]{r, c + 1});
-        return res;
+    /** Shortest number of steps from pid's pawn to its goal row (walls only, the other pawn never blocks). */
+    public int distanceToGoal(int pid) {
+        return dist[pid][cell(pawns[pid].getRow(), pawns[pid].getCol())];
     }
 
-    private boolean inBounds(int r, int c) { return 1 <= r && r <= N && 1 <= c && c <= N; }
-    private String edge(int r1, int c1, int r2, int c2) {
-        if (r1 > r2 || (r1 == r2 && c1 > c2)) {
-            int tr = r1, tc = c1; r1 = r2; c1 = c2; r2 = tr; c2 = tc;
+    /** Shortest number of steps from (r, c) to pid's goal row. */
+    public int distanceToGoal(int pid, int r, int c) { return dist[pid][cell(r, c)]; }
+
+    /*
+     * Called with the new edges already blocked. A player's map can only change if a blocked edge joined
+     * two cells whose distances differ by exactly one (i.e. it was on the shortest-path DAG); only then is
+     * the BFS re-run, into the scratch map. Returns false if a pawn is cut off; nothing is kept unless commit.
+     */
+    private boolean refreshAfterBlock(char orientation, int r, int c, boolean commit) {
+        // a wall touching the border/other walls at fewer than two points cannot close off a region
+        if (!commit && contacts(orientation, r, c) < 2) return true;
+        boolean redo0 = tight(dist[0], orientation, r, c), redo1 = tight(dist[1], orientation, r, c);
+        if (redo0) {
+            computeDistances(0, scratch[0]);
+            if (scratch[0][cell(pawns[0].getRow(), pawns[0].getCol())] >= UNREACHABLE) return false;
         }
-        return r1 + "," + c1 + "-" + r2 + "," + c2;
+        if (redo1) {
+            computeDistances(1, scratch[1]);
+            if (scratch[1][cell(pawns[1].getRow(), pawns[1].getCol())] >= UNREACHABLE) return false;
+        }
+        if (commit) {
+            if (redo0) swapScratch(0);
+            if (redo1) swapScratch(1);
+            lastRedo = (redo0 ? 1 : 0) | (redo1 ? 2 : 0);
+        }
+        return true;
     }
-    private boolean isBlocked(int r1, int c1, int r2, int c2) {
-        return blocked.contains(edge(r1, c1, r2, c2));
+
+    private void swapScratch(int pid) {
+        int[] t = dist[pid];
+        dist[pid] = scratch[pid];
+        scratch[pid] = t;
     }
 
-    //  Display
-    @Override
-    public String displayBoard() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("    ");
-        for (int c = 1; c <= N; c++)
-            sb.append(center(Integer.toString(c), CELL_W + 1));
-        sb.append("\n");
-
-        for (int r = 1; r <= N; r++) {
-            sb.append("   ").append(GRAY).append("+").append(RESET);
-            for (int c = 1; c <= N; c++) {
-                boolean h = hasWall(r, c, true);
-                sb.append(h ? YEL + H_WALL + RESET : GRAY + H_EMPTY + RESET);
-                sb.append(GRAY).append("+").append(RESET);
-            }
-            sb.append("\n");
-
-            sb.append(String.format("%2d ", r));
-            for (int c = 1; c <= N; c++) {
-                boolean v = hasWall(r, c, false);
-                sb.append(v ? YEL + "/" + RESET : GRAY + "|" + RESET);
-
-                String cell = " ";
-                if (pawns[0].getRow() == r && pawns[0].getCol() == c){
-                    // When both A & B are in the same cell
-                    if (pawns[0].getRow() == pawns[1].getRow() && pawns[0].getCol() == pawns[1].getCol())
-                        cell = RED + "A" + RESET + " & " + BLUE + "B" + RESET;
-                    else
-                        cell = RED + "A" + RESET;
-                }
-                else if (pawns[1].getRow() == r && pawns[1].getCol() == c) cell = BLUE + "B" + RESET;
+    /* Does the wall cut an edge whose endpoints are one step apart in d? */
+    private boolean tight(int[] d, char orientation, int r, int c) {
+        return edgeGap(d, orientation, r, c, 0) == 1 || edgeGap(d, orientation, r, c, 1) == 1;
+    }
 
-                sb.append(center(cell, CELL_W));
-            }
-            sb.append(GRAY).append("|").append(RESET).append("\n");
+    /* Does reopening the wall's edges join cells more than one step apart in d (so a path gets shorter)? */
+    private boolean loose(int[] d, char orientation, int r, int c) {
+        return edgeGap(d, orientation, r, c, 0) > 1 || edgeGap(d, orientation, r, c, 1) > 1;
+    }
+
+    /* |d[u] - d[v]| for segment i (0/1) of a wall; 0 if the segment lies on the outer border. */
+    private int edgeGap(int[] d, char orientation, int r, int c, int i) {
+        int u, v;
+        if (orientation == 'H') {
+            if (r == 1) return 0;
+            u = cell(r - 1, c + i);
+            v = cell(r, c + i);
+        } else {
+            if (c == 1) return 0;
+            u = cell(r + i, c - 1);
+            v = cell(r + i, c);
         }
+        return Math.abs(d[u] - d[v]);
+    }
 
-        sb.append("   ").append(GRAY).append("+").append(RESET);
-        for (int c = 1; c <= N; c++)
-            sb.append(GRAY).append(H_EMPTY).append("+").append(RESET);
-        sb.append("\n");
+    /* Multi-source BFS from pid's goal row over open edges, using the preallocated queue. */
+    private void computeDistances(int pid, int[] d) {
+        Arrays.fill(d, UNREACHABLE);
+        int head = 0, tail = 0;
+        int goalRow = (pid == 0) ? n : 1;
+        for (int c = 1; c <= n; c++) {
+            int u = cell(goalRow, c);
+            d[u] = 0;
+            queue[tail++] = u;
+        }
+        while (head < tail) {
+            int u = queue[head++];
+            int r = u / n + 1, c = u % n + 1, next = d[u] + 1;
+            if (r > 1 && (downBlocked[r - 1] >>> c & 1) == 0 && d[u - n] == UNREACHABLE) { d[u - n] = next; queue[tail++] = u - n; }
+            if (r < n && (downBlocked[r] >>> c & 1) == 0 && d[u + n] == UNREACHABLE) { d[u + n] = next; queue[tail++] = u + n; }
+            if (c > 1 && (rightBlocked[r] >>> (c - 1) & 1) == 0 && d[u - 1] == UNREACHABLE) { d[u - 1] = next; queue[tail++] = u - 1; }
+            if (c < n && (rightBlocked[r] >>> c & 1) == 0 && d[u + 1] == UNREACHABLE) { d[u + 1] = next; queue[tail++] = u + 1; }
+        }
+    }
 
-        sb.append("Walls left → A: ").append(wallsLeft[0])
-                .append(" | B: ").append(wallsLeft[1]).append("\n");
+    private int cell(int r, int c) { return (r - 1) * n + (c - 1); }
 
-        return sb.toString();
-    }
+    private boolean inBounds(int r, int c) { return 1 <= r && r <= n && 1 <= c && c <= n; }
 
-    private boolean hasWall(int r, int c, boolean horiz) {
-        for (WallTile w : walls)
-            if (w.getRow() == r && w.getCol() == c && w.isHorizontal() == horiz)
-                return true;
-        return false;
+    /* Edge test between two orthogonally adjacent cells: one bit lookup, no allocation. */
+    private boolean isBlocked(int r1, int c1, int r2, int c2) {
+        if (r1 == r2) return (rightBlocked[r1] >>> Math.min(c1, c2) & 1) != 0;
+        return (downBlocked[Math.min(r1, r2)] >>> c1 & 1) != 0;
     }
 
-    private static String center(String s, int width) {
-        int len = s.replaceAll("\\u001B\\[[;\\d]*m", "").length();
-        if (len >= width) return s;
-        int left = (width - len) / 2, right = width - len - left;
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < left; i++) sb.append(' ');
-        sb.append(s);
-        for (int i = 0; i < right; i++) sb.append(' ');
-        return sb.toString();
+    //  Display
+    @Override
+    public String displayBoard() {
+        if (renderer == null) renderer = new QuoridorRenderer(n);
+        return renderer.frame(this).toString();
     }
+
+    /* Columns covered by a horizontal wall on top of row r (a wall also covers the next column). */
+    long hWallCover(int r) { return hWalls[r] | hWalls[r] << 1; }
+
+    /* Columns covered by a vertical wall on the left of row r (a wall also covers the next row). */
+    long vWallCover(int r) { return vWalls[r] | vWalls[r - 1]; }
 }
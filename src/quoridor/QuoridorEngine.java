@@ -0,0 +1,10 @@
+package quoridor;
+
+/** A computer player: picks a move for pid within a time budget. */
+public interface QuoridorEngine {
+    /** Encoded QuoridorMove; the board must be left as it was given. */
+    int chooseMove(QuoridorBoard board, int pid, long timeMillis);
+
+    /** One-line summary of the last search. */
+    String stats();
+}
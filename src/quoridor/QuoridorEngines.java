@@ -0,0 +1,72 @@
+package quoridor;
+
+import java.util.Random;
+
+/**
+ * Engine factory by name, plus the two cheap baseline strategies used by the tournament runner.
+ * - "ab": QuoridorAI (alpha-beta), "mcts": single-threaded QuoridorMCTS
+ * - "greedy": walks its shortest path, walls the opponent when behind in the race
+ * - "random": uniform over legal moves
+ */
+public class QuoridorEngines {
+    public static final String[] NAMES = {"ab", "mcts", "greedy", "random"};
+
+    /** New engine instance (engines keep search state, so each game needs its own). */
+    public static QuoridorEngine create(String name, long seed) {
+        switch (name) {
+            case "ab": return new QuoridorAI(18);
+            case "mcts": return new QuoridorMCTS(1, 1 << 18);
+            case "greedy": return new Greedy();
+            case "random": return new RandomMoves(seed);
+            default: throw new IllegalArgumentException("Unknown engine: " + name + " (expected ab, mcts, greedy or random)");
+        }
+    }
+
+    /* Shortest-path walker; when the opponent is ahead it places the wall that slows it down the most. */
+    static final class Greedy implements QuoridorEngine {
+        private int[] buf = new int[0];
+
+        @Override
+        public int chooseMove(QuoridorBoard board, int pid, long timeMillis) {
+            if (buf.length < board.maxMoves()) buf = new int[board.maxMoves()];
+            int opp = 1 - pid;
+            int n = board.legalMoves(pid, buf);
+            int step = QuoridorMove.NONE, bestStep = Integer.MAX_VALUE;
+            for (int i = 0; i < n && !QuoridorMove.isWall(buf[i]); i++) {
+                int d = board.distanceToGoal(pid, QuoridorMove.row(buf[i]), QuoridorMove.col(buf[i]));
+                if (d < bestStep) { bestStep = d; step = buf[i]; }
+            }
+            if (board.distanceToGoal(opp) >= board.distanceToGoal(pid) || board.wallsLeft(pid) == 0) return step;
+
+            int wall = QuoridorMove.NONE, gain = board.distanceToGoal(opp) - board.distanceToGoal(pid);
+            for (int i = 0; i < n; i++) {
+                if (!QuoridorMove.isWall(buf[i]) || !board.makeMove(pid, buf[i])) continue;
+                int g = board.distanceToGoal(opp) - board.distanceToGoal(pid);
+                board.unmakeMove();
+                if (g > gain) { gain = g; wall = buf[i]; }
+            }
+            return wall != QuoridorMove.NONE ? wall : step;
+        }
+
+        @Override
+        public String stats() { return "greedy"; }
+    }
+
+    /* Uniform random legal move. */
+    static final class RandomMoves implements QuoridorEngine {
+        private final Random rng;
+        private int[] buf = new int[0];
+
+        RandomMoves(long seed) { this.rng = new Random(seed); }
+
+        @Override
+        public int chooseMove(QuoridorBoard board, int pid, long timeMillis) {
+            if (buf.length < board.maxMoves()) buf = new int[board.maxMoves()];
+            int n = board.legalMoves(pid, buf);
+            return n == 0 ? QuoridorMove.NONE : buf[rng.nextInt(n)];
+        }
+
+        @Override
+        public String stats() { return "random"; }
+    }
+}
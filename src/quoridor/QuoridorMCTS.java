@@ -0,0 +1,281 @@
+package quoridor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Multi-threaded Monte Carlo tree search (UCT) for Quoridor.
+ * - Tree parallelism: all threads share one tree; a thread adds a virtual loss (a visit without a win)
+ *   on its way down so others spread out, and fills in the result on the way back
+ * - Node statistics are atomic ints; expansion is claimed with a CAS, so there are no locks
+ * - Nodes live in a preallocated primitive arena that is reused between searches
+ * - Each thread owns a QuoridorBoard it resets with copyFrom; playouts step pawns along
+ *   shortest paths (distance maps) with occasional random walls, so they allocate nothing
+ * - In the tree, walls are limited to slots near the opponent's pawn to keep the branching factor sane
+ */
+public class QuoridorMCTS implements QuoridorEngine {
+    private static final double EXPLORATION = 1.0;
+    private static final int EXPAND_AFTER = 2;       // visits before a leaf gets children
+    private static final int PLAYOUT_PLIES = 20;     // per board row; then the shortest-path race decides
+    private static final int WALL_PERCENT = 10;      // chance a playout move tries a wall
+    private static final int WALL_RADIUS = 2;        // tree walls within this distance of the opponent
+    private static final int UNEXPANDED = 0, EXPANDING = 1, EXPANDED = 2;
+
+    private final int threads;
+    private final int capacity;
+    // node arena: the move leading to the node is played by 'mover'; wins are counted for that mover
+    private final int[] move, firstChild, childCount;
+    private final byte[] mover;
+    private final AtomicIntegerArray visits, wins, state;
+    private final AtomicInteger used = new AtomicInteger();
+
+    private QuoridorBoard root;
+    private volatile long deadline;
+
+    // stats of the last search
+    private long lastPlayouts, lastNanos;
+    private int lastNodes;
+    private double lastWinRate;
+
+    public QuoridorMCTS() { this(Runtime.getRuntime().availableProcessors(), 1 << 21); }
+
+    public QuoridorMCTS(int threads, int capacity) {
+        if (threads < 1) throw new IllegalArgumentException("Need at least one thread.");
+        this.threads = threads;
+        this.capacity = capacity;
+        move = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+        mover = new byte[capacity];
+        visits = new AtomicIntegerArray(capacity);
+        wins = new AtomicIntegerArray(capacity);
+        state = new AtomicIntegerArray(capacity);
+    }
+
+    @Override
+    public int chooseMove(QuoridorBoard board, int pid, long timeMillis) {
+        long start = System.nanoTime();
+        root = board;
+        deadline = start + timeMillis * 1_000_000L;
+        used.set(1);
+        initNode(0, QuoridorMove.NONE, 1 - pid);
+
+        Worker[] workers = new Worker[threads];
+        Thread[] pool = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(board, start + i);
+            pool[i] = new Thread(workers[i], "mcts-" + i);
+            pool[i].start();
+        }
+        long playouts = 0;
+        for (int i = 0; i < threads; i++) {
+            try {
+                pool[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                deadline = 0;
+            }
+            playouts += workers[i].playouts;
+        }
+        lastPlayouts = playouts;
+        lastNanos = System.nanoTime() - start;
+        lastNodes = used.get();
+
+        int best = QuoridorMove.NONE, bestVisits = -1;
+        if (state.get(0) == EXPANDED) {
+            for (int i = firstChild[0], end = i + childCount[0]; i < end; i++) {
+                if (visits.get(i) > bestVisits) { bestVisits = visits.get(i); best = move[i]; }
+            }
+            lastWinRate = bestVisits > 0 ? (double) wins.get(indexOf(best)) / bestVisits : 0;
+        }
+        if (best == QuoridorMove.NONE) {
+            // no time for a single expansion: fall back to the first shortest-path step
+            int[] buf = new int[board.maxMoves()];
+            int n = board.legalMoves(pid, buf);
+            best = n > 0 ? buf[0] : QuoridorMove.NONE;
+            for (int i = 0; i < n; i++)
+                if (!QuoridorMove.isWall(buf[i]) && board.distanceToGoal(pid, QuoridorMove.row(buf[i]), QuoridorMove.col(buf[i])) < board.distanceToGoal(pid)) {
+                    best = buf[i];
+                    break;
+                }
+        }
+        root = null;
+        return best;
+    }
+
+    public long lastPlayouts() { return lastPlayouts; }
+    public long playoutsPerSecond() { return lastNanos == 0 ? 0 : lastPlayouts * 1_000_000_000L / lastNanos; }
+
+    @Override
+    public String stats() {
+        return String.format("%d threads, %,d playouts, %,d nodes, win rate %.0f%%, %d ms (%,d playouts/sec)",
+                threads, lastPlayouts, lastNodes, lastWinRate * 100, lastNanos / 1_000_000, playoutsPerSecond());
+    }
+
+    private int indexOf(int m) {
+        for (int i = firstChild[0], end = i + childCount[0]; i < end; i++) if (move[i] == m) return i;
+        return 0;
+    }
+
+    private void initNode(int node, int m, int moverPid) {
+        move[node] = m;
+        mover[node] = (byte) moverPid;
+        childCount[node] = 0;
+        visits.set(node, 0);
+        wins.set(node, 0);
+        state.set(node, UNEXPANDED);
+    }
+
+    /* One search thread: its own board, path buffer, move buffer and random state. */
+    private final class Worker implements Runnable {
+        private final QuoridorBoard board;
+        private final int[] path = new int[256];
+        private final int[] buf;
+        private final int n, maxPlayout;
+        private long seed;
+        long playouts;
+
+        Worker(QuoridorBoard root, long seed) {
+            this.board = new QuoridorBoard(root);
+            this.buf = new int[root.maxMoves()];
+            this.n = root.size();
+            this.maxPlayout = PLAYOUT_PLIES * n;
+            this.seed = seed * 0x9E3779B97F4A7C15L | 1;
+        }
+
+        @Override
+        public void run() {
+            while ((playouts & 63) != 0 || System.nanoTime() < deadline) {
+                iterate();
+                playouts++;
+            }
+        }
+
+        private void iterate() {
+            board.copyFrom(root);
+            int node = 0, depth = 0;
+            visits.incrementAndGet(0);
+            path[depth++] = 0;
+
+            // selection, adding a virtual loss to every node on the way
+            while (state.get(node) == EXPANDED && childCount[node] > 0 && board.winner() < 0 && depth < path.length) {
+                node = select(node);
+                visits.incrementAndGet(node);
+                board.applyMove(mover[node], move[node]);
+                path[depth++] = node;
+            }
+
+            // expansion: one thread claims the leaf, the others just play out from it
+            if (board.winner() < 0 && visits.get(node) >= EXPAND_AFTER && state.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                if (expand(node)) {
+                    node = select(node);
+                    visits.incrementAndGet(node);
+                    board.applyMove(mover[node], move[node]);
+                    path[depth++] = node;
+                }
+            }
+
+            int winner = playout(1 - mover[node]);
+
+            // backpropagation: the virtual loss becomes a real loss or a win
+            for (int i = 0; i < depth; i++) {
+                int n = path[i];
+                if (mover[n] == winner) wins.incrementAndGet(n);
+            }
+        }
+
+        private int select(int node) {
+            int first = firstChild[node], end = first + childCount[node];
+            double logN = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestScore = -1;
+            for (int i = first; i < end; i++) {
+                int v = visits.get(i);
+                if (v == 0) return i;
+                double score = (double) wins.get(i) / v + EXPLORATION * Math.sqrt(logN / v);
+                if (score > bestScore) { bestScore = score; best = i; }
+            }
+            return best;
+        }
+
+        /* Fills children from the arena; false (and the node stays a leaf) once the arena is full, which reserves nothing. */
+        private boolean expand(int node) {
+            int pid = 1 - mover[node];
+            int n = board.legalMoves(pid, buf);
+            int opp = 1 - pid, or = board.pawnRow(opp), oc = board.pawnCol(opp);
+            int k = 0;
+            for (int i = 0; i < n; i++) {
+                int m = buf[i];
+                if (QuoridorMove.isWall(m) && Math.max(Math.abs(QuoridorMove.row(m) - or), Math.abs(QuoridorMove.col(m) - oc)) > WALL_RADIUS)
+                    continue;
+                buf[k++] = m;
+            }
+            int first;
+            do {
+                first = used.get();
+                if (k == 0 || first > capacity - k) {
+                    state.set(node, UNEXPANDED);
+                    return false;
+                }
+            } while (!used.compareAndSet(first, first + k));
+            for (int i = 0; i < k; i++) initNode(first + i, buf[i], pid);
+            firstChild[node] = first;
+            childCount[node] = k;
+            state.set(node, EXPANDED);   // volatile write publishes the children
+            return true;
+        }
+
+        /* Plays to the end from the thread's board; returns the winning pid. */
+        private int playout(int pid) {
+            for (int ply = 0; ply < maxPlayout; ply++) {
+                int w = board.winner();
+                if (w >= 0) return w;
+                if (board.wallsLeft(pid) > 0 && nextInt(100) < WALL_PERCENT && randomWall(pid)) {
+                    pid = 1 - pid;
+                    continue;
+                }
+                stepTowardGoal(pid);
+                pid = 1 - pid;
+            }
+            int w = board.winner();
+            if (w >= 0) return w;
+            // race: the side to move wins ties
+            int mine = board.distanceToGoal(pid), theirs = board.distanceToGoal(1 - pid);
+            return mine <= theirs ? pid : 1 - pid;
+        }
+
+        /* Random pawn step among those that shorten the path (any step if none is open). */
+        private void stepTowardGoal(int pid) {
+            int r = board.pawnRow(pid), c = board.pawnCol(pid), d = board.distanceToGoal(pid);
+            int offset = nextInt(4);
+            for (int pass = 0; pass < 2; pass++) {
+                for (int i = 0; i < 4; i++) {
+                    int dir = (offset + i) & 3;
+                    int nr = r + (dir == 0 ? -1 : dir == 1 ? 1 : 0), nc = c + (dir == 2 ? -1 : dir == 3 ? 1 : 0);
+                    if (nr < 1 || nr > n || nc < 1 || nc > n) continue;
+                    if (pass == 0 && board.distanceToGoal(pid, nr, nc) >= d) continue;
+                    if (board.movePawn(pid, nr, nc)) return;
+                }
+            }
+        }
+
+        private boolean randomWall(int pid) {
+            int opp = 1 - pid, or = board.pawnRow(opp), oc = board.pawnCol(opp);
+            for (int attempt = 0; attempt < 4; attempt++) {
+                char o = nextInt(2) == 0 ? 'H' : 'V';
+                int r = Math.max(1, Math.min(n, or + nextInt(2 * WALL_RADIUS + 1) - WALL_RADIUS));
+                int c = Math.max(1, Math.min(n, oc + nextInt(2 * WALL_RADIUS + 1) - WALL_RADIUS));
+                if (board.placeWall(pid, o, r, c)) return true;
+            }
+            return false;
+        }
+
+        /* xorshift64*, per thread */
+        private int nextInt(int bound) {
+            seed ^= seed >>> 12;
+            seed ^= seed << 25;
+            seed ^= seed >>> 27;
+            return (int) (((seed * 0x2545F4914F6CDD1DL) >>> 33) % bound);
+        }
+    }
+}
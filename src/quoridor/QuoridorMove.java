@@ -0,0 +1,38 @@
+package quoridor;
+
+/**
+ * Primitive move encoding shared by the board, the engines and the UI.
+ * A move is an int: kind << 12 | row << 6 | col (rows/cols are 1-based, like the commands).
+ */
+public final class QuoridorMove {
+    public static final int NONE = -1;
+    public static final int PAWN = 0;
+    public static final int H_WALL = 1;
+    public static final int V_WALL = 2;
+
+    private QuoridorMove() { }
+
+    public static int pawn(int r, int c) { return (PAWN << 12) | (r << 6) | c; }
+    public static int wall(char orientation, int r, int c) { return ((orientation == 'H' ? H_WALL : V_WALL) << 12) | (r << 6) | c; }
+
+    public static int kind(int move) { return move >>> 12; }
+    public static int row(int move) { return (move >>> 6) & 63; }
+    public static int col(int move) { return move & 63; }
+    public static boolean isWall(int move) { return kind(move) != PAWN; }
+    public static char orientation(int move) { return kind(move) == H_WALL ? 'H' : 'V'; }
+
+    /** Dense code for an n x n board (kind * n * n + cell), as stored in recordings; fromCompact inverts it. */
+    public static int compact(int move, int n) { return kind(move) * n * n + (row(move) - 1) * n + (col(move) - 1); }
+
+    public static int fromCompact(int code, int n) {
+        int cell = code % (n * n);
+        return ((code / (n * n)) << 12) | ((cell / n + 1) << 6) | (cell % n + 1);
+    }
+
+    /** Same syntax as the game commands: "M r c", "H r c" or "V r c". */
+    public static String toString(int move) {
+        if (move == NONE) return "-";
+        char k = kind(move) == PAWN ? 'M' : orientation(move);
+        return k + " " + row(move) + " " + col(move);
+    }
+}
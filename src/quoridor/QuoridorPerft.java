@@ -0,0 +1,109 @@
+package quoridor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft for Quoridor: counts the leaf positions of the full move tree to a fixed depth.
+ * - Checks the move generator (counts must match between releases and between serial/parallel runs)
+ * - Uses makeMove/unmakeMove with one reusable move buffer per ply; the last ply is bulk-counted
+ * - Optional parallel split at the root: one board copy per root move on a ForkJoinPool
+ * Usage: java quoridor.QuoridorPerft depth [threads] [boardSize]
+ */
+public class QuoridorPerft {
+    private final QuoridorBoard board;
+    private final int[][] moves;
+
+    public QuoridorPerft(QuoridorBoard board, int maxDepth) {
+        this.board = board;
+        this.moves = new int[Math.max(1, maxDepth)][board.maxMoves()];
+    }
+
+    /** Leaf count below the current position with pid to move (positions where someone has won are leaves). */
+    public long perft(int pid, int depth) {
+        if (depth == 0 || board.winner() >= 0) return 1;
+        int[] buf = moves[depth - 1];
+        int n = board.legalMoves(pid, buf);
+        if (depth == 1) return n;
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            board.makeMove(pid, buf[i]);
+            total += perft(1 - pid, depth - 1);
+            board.unmakeMove();
+        }
+        return total;
+    }
+
+    /** Same count, with the root moves searched in parallel on pool. */
+    public static long parallelPerft(QuoridorBoard board, int pid, int depth, ForkJoinPool pool) {
+        if (depth <= 1 || board.winner() >= 0) return new QuoridorPerft(board, depth).perft(pid, depth);
+        int[] root = new int[board.maxMoves()];
+        int n = board.legalMoves(pid, root);
+        RootMove[] tasks = new RootMove[n];
+        for (int i = 0; i < n; i++) tasks[i] = new RootMove(board, pid, root[i], depth - 1);
+        return pool.invoke(new AllRootMoves(tasks));
+    }
+
+    /* Runs every root move and sums their counts. */
+    private static final class AllRootMoves extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final RootMove[] tasks;
+
+        AllRootMoves(RootMove[] tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected Long compute() {
+            invokeAll(tasks);
+            long total = 0;
+            for (RootMove t : tasks) total += t.join();
+            return total;
+        }
+    }
+
+    private static final class RootMove extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final QuoridorBoard board;
+        private final int pid, depth;
+
+        RootMove(QuoridorBoard root, int pid, int move, int depth) {
+            this.board = new QuoridorBoard(root);
+            this.board.applyMove(pid, move);
+            this.pid = 1 - pid;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() { return new QuoridorPerft(board, depth).perft(pid, depth); }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java quoridor.QuoridorPerft depth [threads] [boardSize]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int size = args.length > 2 ? Integer.parseInt(args[2]) : QuoridorBoard.DEFAULT_SIZE;
+        QuoridorBoard board = new QuoridorBoard(size);
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long count;
+            if (threads > 1) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    count = parallelPerft(board, 0, d, pool);
+                } finally {
+                    pool.shutdown();
+                }
+            } else {
+                count = new QuoridorPerft(board, d).perft(0, d);
+            }
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.out.printf("perft(%d) = %,d  %d ms  %,d leaves/sec%n", d, count, nanos / 1_000_000, count * 1_000_000_000L / nanos);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package quoridor;
+
+import java.io.IOException;
+
+/**
+ * Text renderer for QuoridorBoard that keeps its last frame.
+ * - Every segment (wall, edge, pawn cell, row label) is built once per board size; no format/regex per frame
+ * - The frame is cached line by line; a line is rebuilt only when the walls or pawns it shows changed,
+ *   so a move touches one to three lines and the rest is a plain copy
+ * - redraw() writes only the changed lines with ANSI cursor addressing (for spectating fast games)
+ * Not thread-safe; frame() returns an internal buffer that the next call overwrites.
+ */
+public final class QuoridorRenderer {
+    static final String RESET = "\u001B[0m";
+    static final String RED   = "\u001B[31m";
+    static final String BLUE  = "\u001B[34m";
+    static final String YEL   = "\u001B[33m";
+    static final String GRAY  = "\u001B[37m";
+
+    private static final int CELL_W = 5;
+    private static final String POST = GRAY + "+" + RESET;
+    private static final String H_ON = YEL + "=====" + RESET + POST;
+    private static final String H_OFF = GRAY + "-----" + RESET + POST;
+    private static final String V_ON = YEL + "/" + RESET;
+    private static final String V_OFF = GRAY + "|" + RESET;
+    private static final String CELL_EMPTY = "     ";
+    private static final String CELL_A = "  " + RED + "A" + RESET + "  ";
+    private static final String CELL_B = "  " + BLUE + "B" + RESET + "  ";
+    private static final String CELL_AB = RED + "A" + RESET + " & " + BLUE + "B" + RESET;
+
+    private final int n;
+    private final String margin;
+    private final String[] labels;           // "%{width}d " per row
+    private final StringBuilder[] lines;     // 0 header, 2r-1 walls above row r, 2r row r, 2n+1 bottom, 2n+2 walls left
+    private final long[] wallKey;            // per line: wall bits the line was built from
+    private final int[] pawnKey;             // per cell row: pawn columns the line was built from
+    private final boolean[] dirty;
+    private boolean drawn;                   // redraw() has put a full frame on the screen
+    private final StringBuilder frame = new StringBuilder();
+
+    public QuoridorRenderer(int n) {
+        this.n = n;
+        int label = Math.max(2, Integer.toString(n).length());
+        margin = spaces(label + 1);
+        labels = new String[n + 1];
+        for (int r = 1; r <= n; r++) labels[r] = spaces(label - Integer.toString(r).length()) + r + " ";
+        lines = new StringBuilder[2 * n + 3];
+        for (int i = 0; i < lines.length; i++) lines[i] = new StringBuilder();
+        wallKey = new long[lines.length];
+        pawnKey = new int[lines.length];
+        dirty = new boolean[lines.length];
+
+        StringBuilder header = lines[0].append(margin).append(' ');
+        for (int c = 1; c <= n; c++) {
+            String s = Integer.toString(c);
+            int left = (CELL_W + 1 - s.length()) / 2;
+            header.append(spaces(left)).append(s).append(spaces(CELL_W + 1 - s.length() - left));
+        }
+        StringBuilder bottom = lines[2 * n + 1].append(margin).append(POST);
+        for (int c = 1; c <= n; c++) bottom.append(GRAY).append("-----").append('+').append(RESET);
+        invalidate();
+    }
+
+    /** Forces the next frame() / redraw() to rebuild and repaint everything. */
+    public void invalidate() {
+        for (int r = 1; r <= n; r++) {
+            wallKey[2 * r - 1] = wallKey[2 * r] = -1;   // no real key has bit 63 set
+        }
+        wallKey[2 * n + 2] = -1;
+        drawn = false;
+    }
+
+    /** Whole board as text (same layout as displayBoard always had); the buffer is reused by the next call. */
+    public CharSequence frame(QuoridorBoard b) {
+        update(b);
+        frame.setLength(0);
+        for (StringBuilder line : lines) frame.append(line).append('\n');
+        return frame;
+    }
+
+    /**
+     * Appends what a terminal needs to show b: the full frame (after clearing the screen) the first time,
+     * afterwards only the changed lines, each positioned with a cursor escape. Leaves the cursor below the board.
+     */
+    public void redraw(QuoridorBoard b, Appendable out) throws IOException {
+        int changed = update(b);
+        if (!drawn) {
+            out.append("\u001B[H\u001B[2J").append(frame(b));
+            drawn = true;
+            return;
+        }
+        if (changed == 0) return;
+        for (int i = 0; i < lines.length; i++) {
+            if (!dirty[i]) continue;
+            out.append("\u001B[").append(Integer.toString(i + 1)).append(";1H").append(lines[i]).append("\u001B[K");
+        }
+        out.append("\u001B[").append(Integer.toString(lines.length + 1)).append(";1H");
+    }
+
+    /* Rebuilds the lines whose walls or pawns changed since the last call; returns how many. */
+    private int update(QuoridorBoard b) {
+        if (b.size() != n) throw new IllegalArgumentException("Renderer is for " + n + "x" + n + " boards.");
+        int changed = 0;
+        for (int r = 1; r <= n; r++) {
+            int above = 2 * r - 1, row = 2 * r;
+            long h = b.hWallCover(r);
+            dirty[above] = h != wallKey[above];
+            if (dirty[above]) {
+                wallKey[above] = h;
+                buildWallLine(lines[above], h);
+                changed++;
+            }
+            long v = b.vWallCover(r);
+            int pawns = (b.pawnRow(0) == r ? b.pawnCol(0) : 0) | (b.pawnRow(1) == r ? b.pawnCol(1) : 0) << 8;
+            dirty[row] = v != wallKey[row] || pawns != pawnKey[row];
+            if (dirty[row]) {
+                wallKey[row] = v;
+                pawnKey[row] = pawns;
+                buildCellLine(lines[row], r, v, pawns & 0xFF, pawns >>> 8);
+                changed++;
+            }
+        }
+        int last = 2 * n + 2;
+        long left = (long) b.wallsLeft(0) << 16 | b.wallsLeft(1);
+        dirty[last] = left != wallKey[last];
+        if (dirty[last]) {
+            wallKey[last] = left;
+            lines[last].setLength(0);
+            lines[last].append("Walls left → A: ").append(b.wallsLeft(0)).append(" | B: ").append(b.wallsLeft(1));
+            changed++;
+        }
+        return changed;
+    }
+
+    private void buildWallLine(StringBuilder line, long cover) {
+        line.setLength(0);
+        line.append(margin).append(POST);
+        for (int c = 1; c <= n; c++) line.append((cover >>> c & 1) != 0 ? H_ON : H_OFF);
+    }
+
+    private void buildCellLine(StringBuilder line, int r, long cover, int colA, int colB) {
+        line.setLength(0);
+        line.append(labels[r]);
+        for (int c = 1; c <= n; c++) {
+            line.append((cover >>> c & 1) != 0 ? V_ON : V_OFF);
+            if (c == colA) line.append(c == colB ? CELL_AB : CELL_A);
+            else line.append(c == colB ? CELL_B : CELL_EMPTY);
+        }
+        line.append(V_OFF);
+    }
+
+    private static String spaces(int width) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < width; i++) sb.append(' ');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,226 @@
+package quoridor;
+
+import common.gameUtils.ThreadPools;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Headless engine-vs-engine tournament for Quoridor.
+ * - Every game runs as its own task, one virtual thread per game when the JVM supports it
+ * - Engines come from QuoridorEngines by name; colours alternate so both engines move first equally often
+ * - Reports win rates, first-mover wins, average game length and per-move latency percentiles per engine
+ * - Optional move log: one line per game with the winner and its moves in command syntax
+ * - --watch draws game 0 live, repainting only the lines its moves change
+ *
+ * Usage: java quoridor.QuoridorTournament --a ab --b greedy [--games 1000] [--size 9] [--time 50]
+ *        [--max-plies N] [--log moves.txt] [--out summary.txt] [--watch]
+ */
+public class QuoridorTournament {
+    private final String engineA, engineB;
+    private final int size, maxPlies;
+    private final long moveMillis;
+    private final PrintWriter log;
+    private boolean watch;
+
+    /* Outcome of one game: winner 0 = engine A, 1 = engine B, -1 = draw (ply cap). */
+    private static final class GameResult {
+        int winner = -1, plies;
+        boolean aFirst;
+        long[] latencyA = new long[16], latencyB = new long[16];
+        int movesA, movesB;
+    }
+
+    public QuoridorTournament(String engineA, String engineB, int size, long moveMillis, int maxPlies, PrintWriter log) {
+        QuoridorEngines.create(engineA, 0);   // fail fast on unknown names
+        QuoridorEngines.create(engineB, 0);
+        this.engineA = engineA;
+        this.engineB = engineB;
+        this.size = size;
+        this.moveMillis = moveMillis;
+        this.maxPlies = maxPlies;
+        this.log = log;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String a = null, b = null, logFile = null, outFile = null;
+        int games = 1000, size = QuoridorBoard.DEFAULT_SIZE, maxPlies = -1;
+        long time = 50;
+        boolean watch = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--a": a = args[++i]; break;
+                case "--b": b = args[++i]; break;
+                case "--games": games = Integer.parseInt(args[++i]); break;
+                case "--size": size = Integer.parseInt(args[++i]); break;
+                case "--time": time = Long.parseLong(args[++i]); break;
+                case "--max-plies": maxPlies = Integer.parseInt(args[++i]); break;
+                case "--log": logFile = args[++i]; break;
+                case "--out": outFile = args[++i]; break;
+                case "--watch": watch = true; break;
+                default: System.out.println("Unknown option: " + args[i]); return;
+            }
+        }
+        if (a == null || b == null) {
+            System.out.println("Usage: QuoridorTournament --a <engine> --b <engine> [--games N] [--size n] [--time ms]"
+                    + " [--max-plies N] [--log moves.txt] [--out summary.txt] [--watch]");
+            System.out.println("Engines: " + String.join(", ", QuoridorEngines.NAMES));
+            return;
+        }
+        if (maxPlies < 0) maxPlies = 20 * size;
+        PrintWriter log = logFile == null ? null : new PrintWriter(Files.newBufferedWriter(Paths.get(logFile), StandardCharsets.UTF_8));
+        PrintWriter out = outFile == null
+                ? new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : new PrintWriter(Files.newBufferedWriter(Paths.get(outFile), StandardCharsets.UTF_8));
+        try {
+            QuoridorTournament t = new QuoridorTournament(a, b, size, time, maxPlies, log);
+            t.setWatch(watch);
+            t.run(games, out);
+        } finally {
+            out.close();
+            if (log != null) log.close();
+        }
+    }
+
+    /** Draws game 0 on System.out while it is played (ANSI terminal). */
+    public void setWatch(boolean watch) { this.watch = watch; }
+
+    /* Plays all games concurrently, then writes the summary. */
+    public void run(int games, PrintWriter out) throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService executor = ThreadPools.perTaskExecutor();
+        List<Future<GameResult>> futures = new ArrayList<>(games);
+        try {
+            for (int g = 0; g < games; g++) {
+                final int id = g;
+                futures.add(executor.submit(() -> play(id)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<GameResult> results = new ArrayList<>(games);
+        for (Future<GameResult> f : futures) {
+            try {
+                results.add(f.get());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Game failed", e.getCause());
+            }
+        }
+        summarize(results, System.nanoTime() - start, out);
+    }
+
+    private GameResult play(int id) {
+        GameResult res = new GameResult();
+        res.aFirst = (id & 1) == 0;
+        QuoridorEngine a = QuoridorEngines.create(engineA, id * 2L), b = QuoridorEngines.create(engineB, id * 2L + 1);
+        QuoridorBoard board = new QuoridorBoard(size);
+        StringBuilder moves = log == null ? null : new StringBuilder();
+        QuoridorRenderer view = watch && id == 0 ? new QuoridorRenderer(size) : null;
+        StringBuilder screen = view == null ? null : new StringBuilder();
+        int pid = 0;
+        while (board.winner() < 0 && res.plies < maxPlies) {
+            boolean aToMove = (pid == 0) == res.aFirst;
+            long t0 = System.nanoTime();
+            int move = (aToMove ? a : b).chooseMove(board, pid, moveMillis);
+            long nanos = System.nanoTime() - t0;
+            if (aToMove) res.latencyA = add(res.latencyA, res.movesA++, nanos);
+            else res.latencyB = add(res.latencyB, res.movesB++, nanos);
+            if (!board.applyMove(pid, move))
+                throw new IllegalStateException((aToMove ? engineA : engineB) + " played illegal move " + QuoridorMove.toString(move));
+            if (moves != null) moves.append(moves.length() == 0 ? "" : ";").append(QuoridorMove.toString(move));
+            res.plies++;
+            pid = 1 - pid;
+            if (view != null) show(view, board, screen, res.plies, move);
+        }
+        int w = board.winner();
+        if (w >= 0) res.winner = (w == 0) == res.aFirst ? 0 : 1;
+        if (log != null) {
+            String who = res.winner < 0 ? "draw" : res.winner == 0 ? "A" : "B";
+            synchronized (log) {
+                log.println(id + "\t" + (res.aFirst ? "A" : "B") + "-first\t" + who + "\t" + res.plies + "\t" + moves);
+            }
+        }
+        return res;
+    }
+
+    /* Repaints the watched game: after the first frame only the lines changed by the move are rewritten. */
+    private static void show(QuoridorRenderer view, QuoridorBoard board, StringBuilder screen, int ply, int move) {
+        screen.setLength(0);
+        try {
+            view.redraw(board, screen);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);   // StringBuilder never throws
+        }
+        screen.append("Ply ").append(ply).append(": ").append(QuoridorMove.toString(move)).append("\u001B[K\n");
+        System.out.print(screen);
+        System.out.flush();
+    }
+
+    private static long[] add(long[] xs, int i, long x) {
+        if (i == xs.length) xs = Arrays.copyOf(xs, i * 2);
+        xs[i] = x;
+        return xs;
+    }
+
+    private void summarize(List<GameResult> results, long nanos, PrintWriter out) {
+        int n = results.size(), winsA = 0, winsB = 0, firstWins = 0;
+        long plies = 0, movesA = 0, movesB = 0;
+        for (GameResult r : results) {
+            if (r.winner == 0) winsA++;
+            if (r.winner == 1) winsB++;
+            if (r.winner >= 0 && (r.winner == 0) == r.aFirst) firstWins++;
+            plies += r.plies;
+            movesA += r.movesA;
+            movesB += r.movesB;
+        }
+        long[] latA = new long[(int) movesA], latB = new long[(int) movesB];
+        int ia = 0, ib = 0;
+        for (GameResult r : results) {
+            System.arraycopy(r.latencyA, 0, latA, ia, r.movesA);
+            System.arraycopy(r.latencyB, 0, latB, ib, r.movesB);
+            ia += r.movesA;
+            ib += r.movesB;
+        }
+        Arrays.sort(latA);
+        Arrays.sort(latB);
+
+        out.printf("Quoridor tournament: %s (A) vs %s (B), %d games on %dx%d, %d ms per move, %s%n",
+                engineA, engineB, n, size, size, moveMillis,
+                ThreadPools.hasVirtualThreads() ? "virtual threads" : "platform thread pool");
+        out.printf("A wins %d (%.1f%%)  B wins %d (%.1f%%)  draws %d  first mover won %.1f%%%n",
+                winsA, pct(winsA, n), winsB, pct(winsB, n), n - winsA - winsB, pct(firstWins, winsA + winsB));
+        out.printf("Average game length %.1f plies%n", n == 0 ? 0.0 : (double) plies / n);
+        out.println(latencyLine("A " + engineA, latA));
+        out.println(latencyLine("B " + engineB, latB));
+        out.printf("Wall time %d ms (%.1f games/sec)%n", nanos / 1_000_000, n * 1e9 / Math.max(1, nanos));
+        out.flush();
+    }
+
+    private static double pct(int k, int n) { return n == 0 ? 0 : 100.0 * k / n; }
+
+    private static String latencyLine(String label, long[] sorted) {
+        return String.format("Move latency %-10s p50 %.2f ms  p90 %.2f ms  p99 %.2f ms  max %.2f ms  (%d moves)",
+                label, ms(percentile(sorted, 50)), ms(percentile(sorted, 90)), ms(percentile(sorted, 99)),
+                ms(sorted.length == 0 ? 0 : sorted[sorted.length - 1]), sorted.length);
+    }
+
+    /* Nearest-rank percentile of a sorted array. */
+    private static long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double ms(long nanos) { return nanos / 1e6; }
+}
@@ -0,0 +1,55 @@
+package quoridor;
+
+/**
+ * Fixed-size transposition table on a primitive long[] (two longs per slot: key ^ data, data).
+ * - Depth-preferred replacement; entries from older searches (age) are always replaced
+ * - Data packs move (16 bits), score (16), depth (8), bound flag (2) and age (6)
+ * - Storing key ^ data lets a reader detect a torn or foreign slot without locking
+ */
+public final class TranspositionTable {
+    public static final int EXACT = 0, LOWER = 1, UPPER = 2;
+
+    private final long[] slots;
+    private final int mask;
+    private int age;
+
+    /** Table with 2^log2Size entries (16 bytes each). */
+    public TranspositionTable(int log2Size) {
+        if (log2Size < 4 || log2Size > 28) throw new IllegalArgumentException("Table size must be 2^4..2^28 entries.");
+        slots = new long[2 << log2Size];
+        mask = (1 << log2Size) - 1;
+    }
+
+    /** Starts a new search: entries from earlier searches become replaceable. */
+    public void newSearch() { age = (age + 1) & 63; }
+
+    public void clear() { java.util.Arrays.fill(slots, 0L); }
+
+    /** Packed data for key, or 0 if absent (a stored entry is never 0: its depth is at least 1). */
+    public long probe(long key) {
+        int i = ((int) key & mask) << 1;
+        long data = slots[i + 1];
+        return (slots[i] ^ data) == key ? data : 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int flag) {
+        int i = ((int) key & mask) << 1;
+        long old = slots[i + 1];
+        boolean sameKey = (slots[i] ^ old) == key;
+        if (old != 0 && !sameKey && age(old) == age && depth(old) > depth) return;
+        if (sameKey && move == QuoridorMove.NONE) move = move(old);   // keep the known best move
+        long data = (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) flag << 40)
+                | ((long) age << 42);
+        slots[i] = key ^ data;
+        slots[i + 1] = data;
+    }
+
+    public static int move(long data) { int m = (int) (data & 0xFFFF); return m == 0xFFFF ? QuoridorMove.NONE : m; }
+    public static int score(long data) { return (short) (data >>> 16); }
+    public static int depth(long data) { return (int) (data >>> 32) & 0xFF; }
+    public static int flag(long data) { return (int) (data >>> 40) & 3; }
+    private static int age(long data) { return (int) (data >>> 42) & 63; }
+}
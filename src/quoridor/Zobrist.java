@@ -0,0 +1,44 @@
+package quoridor;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zobrist keys for Quoridor positions: pawn cells, wall anchors, walls left and side to move.
+ * Keys come from a fixed seed, so hashes are stable between runs; one table is shared per board size.
+ */
+final class Zobrist {
+    private static final Map<Integer, Zobrist> BY_SIZE = new ConcurrentHashMap<>();
+
+    final long[][] pawn;       // [pid][cell]
+    final long[] hWall;        // [r * (n + 2) + c]
+    final long[] vWall;
+    final long[][] wallsLeft;  // [pid][count]
+    final long sideToMove;     // XOR-ed in by searches when player 1 is to move
+    private final int stride;
+
+    private Zobrist(int n, int maxWalls) {
+        SplittableRandom rng = new SplittableRandom(0x5EED_0000L + n);
+        stride = n + 2;
+        pawn = new long[2][n * n];
+        hWall = new long[stride * stride];
+        vWall = new long[stride * stride];
+        wallsLeft = new long[2][2 * maxWalls + 2];
+        for (long[] keys : pawn) fill(keys, rng);
+        fill(hWall, rng);
+        fill(vWall, rng);
+        for (long[] keys : wallsLeft) fill(keys, rng);
+        sideToMove = rng.nextLong();
+    }
+
+    static Zobrist forSize(int n, int maxWalls) {
+        return BY_SIZE.computeIfAbsent(n, k -> new Zobrist(n, maxWalls));
+    }
+
+    long wall(char orientation, int r, int c) { return (orientation == 'H' ? hWall : vWall)[r * stride + c]; }
+
+    private static void fill(long[] keys, SplittableRandom rng) {
+        for (int i = 0; i < keys.length; i++) keys[i] = rng.nextLong();
+    }
+}
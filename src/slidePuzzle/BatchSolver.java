@@ -0,0 +1,213 @@
+package slidePuzzle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Solves a file of slide puzzles on a ForkJoinPool and streams one result line per puzzle.
+ * - Puzzles run as parallel tasks; puzzles that are still unsolved after a short
+ *   sequential probe are also split across the first IDA* levels
+ * - Input, one puzzle per line: rows cols t0 t1 ... t(n-1) [expectedLength]   (0 = blank, '#' = comment)
+ * - Output: id, size, optimal length, nodes expanded, wall time in ms, OK/MISMATCH against the expected length
+ *
+ * Usage: java slidePuzzle.BatchSolver puzzles.txt [--threads N] [--out results.txt] [--pdb dir] [--build-pdb]
+ */
+public class BatchSolver {
+    private static final long PROBE_NODES = 1_000_000L;
+    private static final int SPLIT_DEPTH = 4;
+
+    private final ForkJoinPool pool;
+    private final PrintWriter out;
+    private final Path pdbDir;
+    private final boolean buildPdb;
+    private final Map<String, ParallelSlidePuzzleSolver> parallelSolvers = new HashMap<>();
+    private final Map<String, PatternDatabaseSet> pdbs = new HashMap<>();
+    private final AtomicInteger solved = new AtomicInteger(), mismatches = new AtomicInteger(), failed = new AtomicInteger();
+    private final AtomicLong totalNodes = new AtomicLong();
+
+    public BatchSolver(int threads, PrintWriter out, Path pdbDir, boolean buildPdb) {
+        this.pool = new ForkJoinPool(threads);
+        this.out = out;
+        this.pdbDir = pdbDir;
+        this.buildPdb = buildPdb;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: BatchSolver <puzzles.txt> [--threads N] [--out results.txt] [--pdb dir] [--build-pdb]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path outFile = null, pdbDir = Paths.get(PatternDatabaseSet.DEFAULT_DIR);
+        boolean build = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--out": outFile = Paths.get(args[++i]); break;
+                case "--pdb": pdbDir = Paths.get(args[++i]); break;
+                case "--build-pdb": build = true; break;
+                default: System.out.println("Unknown option: " + args[i]); return;
+            }
+        }
+        PrintWriter out = outFile == null
+                ? new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : new PrintWriter(Files.newBufferedWriter(outFile, StandardCharsets.UTF_8));
+        try {
+            new BatchSolver(threads, out, pdbDir, build).run(Paths.get(args[0]));
+        } finally {
+            out.close();
+        }
+    }
+
+    /* Reads every puzzle, solves them all, then prints a summary line. */
+    public void run(Path puzzles) throws IOException {
+        List<PuzzleTask> tasks = new ArrayList<>();
+        try (BufferedReader br = Files.newBufferedReader(puzzles, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = br.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                tasks.add(new PuzzleTask(lineNo, line));
+            }
+        }
+        for (PuzzleTask t : tasks) t.prepare();
+
+        emit("# id\tsize\tlength\tnodes\tms\tstatus");
+        long start = System.currentTimeMillis();
+        pool.invoke(new AllPuzzles(tasks));
+        long ms = Math.max(1, System.currentTimeMillis() - start);
+        emit(String.format("# puzzles=%d solved=%d mismatches=%d failed=%d nodes=%d wall=%dms nodes/sec=%d threads=%d",
+                tasks.size(), solved.get(), mismatches.get(), failed.get(), totalNodes.get(), ms,
+                totalNodes.get() * 1000 / ms, pool.getParallelism()));
+        pool.shutdown();
+    }
+
+    private void emit(String line) {
+        synchronized (out) {
+            out.println(line);
+            out.flush();
+        }
+    }
+
+    /* Tables and parallel solvers are set up per size before the pool starts. */
+    private PatternDatabaseSet patternDatabases(int rows, int cols) {
+        String key = rows + "x" + cols;
+        if (!pdbs.containsKey(key)) {
+            PatternDatabaseSet set = null;
+            try {
+                set = PatternDatabaseSet.loadOrBuild(rows, cols, pdbDir, buildPdb);
+            } catch (IOException e) {
+                emit("# pattern databases for " + key + " unavailable: " + e.getMessage());
+            }
+            pdbs.put(key, set);
+            parallelSolvers.put(key, new ParallelSlidePuzzleSolver(rows, cols, set, SPLIT_DEPTH));
+        }
+        return pdbs.get(key);
+    }
+
+    /* Root task: runs every puzzle of the file on the pool. */
+    private static final class AllPuzzles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<PuzzleTask> tasks;
+
+        AllPuzzles(List<PuzzleTask> tasks) {
+            this.tasks = tasks;
+        }
+
+        @Override
+        protected void compute() {
+            invokeAll(tasks);
+        }
+    }
+
+    private final class PuzzleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int id;
+        private final String line;
+        private SlidePuzzleBoard board;
+        private int expected = -1;
+        private String error;
+        private PatternDatabaseSet pdb;
+        private ParallelSlidePuzzleSolver parallel;
+
+        PuzzleTask(int id, String line) {
+            this.id = id;
+            this.line = line;
+        }
+
+        void prepare() {
+            try {
+                String[] parts = line.split("\\s+");
+                int rows = Integer.parseInt(parts[0]), cols = Integer.parseInt(parts[1]);
+                int n = rows * cols;
+                if (parts.length != n + 2 && parts.length != n + 3)
+                    throw new IllegalArgumentException("expected " + n + " tiles");
+                int[] values = new int[n];
+                for (int i = 0; i < n; i++) values[i] = Integer.parseInt(parts[i + 2]);
+                if (parts.length == n + 3) expected = Integer.parseInt(parts[n + 2]);
+                board = new SlidePuzzleBoard(rows, cols);
+                board.state().load(values);
+                pdb = patternDatabases(rows, cols);
+                parallel = parallelSolvers.get(rows + "x" + cols);
+            } catch (RuntimeException e) {
+                error = e.getMessage();
+            }
+        }
+
+        @Override
+        protected void compute() {
+            if (error != null) {
+                failed.incrementAndGet();
+                emit(id + "\t-\t-\t-\t-\tINVALID " + error);
+                return;
+            }
+            long start = System.currentTimeMillis();
+
+            // easy puzzles finish in the probe; hard ones are split across the pool
+            SlidePuzzleSolver probe = new SlidePuzzleSolver(board.rows(), board.cols());
+            probe.usePatternDatabases(pdb);
+            probe.setNodeLimit(PROBE_NODES);
+            Direction[] moves = probe.solve(board);
+            long nodes = probe.nodesExpanded();
+            if (moves == null && board.isSolvable()) {
+                ParallelSlidePuzzleSolver.Result r = parallel.solve(board, pool);
+                moves = r.moves;
+                nodes += r.nodes;
+            }
+            long ms = System.currentTimeMillis() - start;
+            totalNodes.addAndGet(nodes);
+
+            String size = board.rows() + "x" + board.cols();
+            if (moves == null) {
+                failed.incrementAndGet();
+                emit(id + "\t" + size + "\t-\t" + nodes + "\t" + ms + "\tUNSOLVABLE");
+                return;
+            }
+            solved.incrementAndGet();
+            String status = "OK";
+            if (expected >= 0 && expected != moves.length) {
+                mismatches.incrementAndGet();
+                status = "MISMATCH expected " + expected;
+            }
+            emit(id + "\t" + size + "\t" + moves.length + "\t" + nodes + "\t" + ms + "\t" + status);
+        }
+    }
+}
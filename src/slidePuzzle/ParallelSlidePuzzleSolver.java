@@ -0,0 +1,163 @@
+package slidePuzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * IDA* split across a ForkJoinPool.
+ * - The root is expanded a few levels; every frontier node becomes its own task per iteration
+ * - All tasks of an iteration share the same bound, so the first solution found is optimal
+ * - One SlidePuzzleSolver (and its scratch arrays) is reused per worker thread
+ */
+public class ParallelSlidePuzzleSolver {
+    private static final Direction[] DIRS = Direction.values(); // opposite = d ^ 1
+
+    /** Optimal solution (null if unsolvable) plus nodes expanded. */
+    public static final class Result {
+        public final Direction[] moves;
+        public final long nodes;
+
+        Result(Direction[] moves, long nodes) {
+            this.moves = moves;
+            this.nodes = nodes;
+        }
+    }
+
+    private final int splitDepth;
+    private final ThreadLocal<SlidePuzzleSolver> solvers;
+
+    public ParallelSlidePuzzleSolver(int rows, int cols, PatternDatabaseSet pdb, int splitDepth) {
+        this.splitDepth = splitDepth;
+        this.solvers = ThreadLocal.withInitial(() -> {
+            SlidePuzzleSolver s = new SlidePuzzleSolver(rows, cols);
+            s.usePatternDatabases(pdb);
+            s.setNodeLimit(Long.MAX_VALUE);
+            return s;
+        });
+    }
+
+    /** Solves on the given pool (or inline when already running inside a ForkJoinPool task). */
+    public Result solve(SlidePuzzleBoard board, ForkJoinPool pool) {
+        if (ForkJoinTask.inForkJoinPool()) return search(board);
+        return pool.invoke(new Search(board));
+    }
+
+    private Result search(SlidePuzzleBoard root) {
+        if (!root.isSolvable()) return new Result(null, 0);
+
+        // breadth-first frontier; a solution above the split depth is found here (and is optimal)
+        List<Node> frontier = new ArrayList<>();
+        frontier.add(new Node(new SlidePuzzleBoard(root), new byte[0], -1));
+        for (int depth = 0; ; depth++) {
+            for (Node node : frontier)
+                if (node.board.isSolved()) return new Result(node.moves(), 0);
+            if (depth == splitDepth) break;
+            List<Node> next = new ArrayList<>(frontier.size() * 3);
+            for (Node node : frontier) {
+                for (int d = 0; d < 4; d++) {
+                    if (d == (node.last ^ 1)) continue;
+                    SlidePuzzleBoard child = new SlidePuzzleBoard(node.board);
+                    if (!child.slide(DIRS[d])) continue;
+                    byte[] path = Arrays.copyOf(node.path, node.path.length + 1);
+                    path[node.path.length] = (byte) d;
+                    next.add(new Node(child, path, d));
+                }
+            }
+            frontier = next;
+        }
+
+        int bound = solvers.get().estimate(root);
+        long nodes = 0;
+        while (true) {
+            AtomicBoolean found = new AtomicBoolean();
+            List<Subtree> tasks = new ArrayList<>(frontier.size());
+            for (Node node : frontier) tasks.add(new Subtree(node, bound, found));
+            ForkJoinTask.invokeAll(tasks);
+
+            int nextBound = Integer.MAX_VALUE;
+            Direction[] solution = null;
+            for (Subtree t : tasks) {
+                nodes += t.nodes;
+                if (t.result == SlidePuzzleSolver.FOUND && solution == null) solution = t.solution;
+                else if (t.result >= 0 && t.result < nextBound) nextBound = t.result;
+            }
+            if (solution != null) return new Result(solution, nodes);
+            if (nextBound == Integer.MAX_VALUE) return new Result(null, nodes);
+            bound = nextBound;
+        }
+    }
+
+    /* Frontier node: board after 'path' blank moves from the root. */
+    private static final class Node {
+        final SlidePuzzleBoard board;
+        final byte[] path;
+        final int last;
+
+        Node(SlidePuzzleBoard board, byte[] path, int last) {
+            this.board = board;
+            this.path = path;
+            this.last = last;
+        }
+
+        Direction[] moves() {
+            Direction[] ds = new Direction[path.length];
+            for (int i = 0; i < path.length; i++) ds[i] = DIRS[path[i]];
+            return ds;
+        }
+    }
+
+    /* Root task: the whole search for one board. */
+    private final class Search extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final SlidePuzzleBoard board;
+
+        Search(SlidePuzzleBoard board) {
+            this.board = board;
+        }
+
+        @Override
+        protected Result compute() {
+            return search(board);
+        }
+    }
+
+    /* One bounded pass below a frontier node. */
+    private final class Subtree extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Node node;
+        private final int bound;
+        private final AtomicBoolean found;
+        int result;
+        long nodes;
+        Direction[] solution;
+
+        Subtree(Node node, int bound, AtomicBoolean found) {
+            this.node = node;
+            this.bound = bound;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get()) { result = SlidePuzzleSolver.ABORTED; return; }
+            SlidePuzzleSolver solver = solvers.get();
+            int g = node.path.length;
+            result = solver.searchBelow(node.board, g, bound, node.last, found);
+            nodes = solver.nodesExpanded();
+            if (result == SlidePuzzleSolver.FOUND) {
+                found.set(true);
+                Direction[] prefix = node.moves(), rest = solver.solutionFrom(g);
+                solution = Arrays.copyOf(prefix, prefix.length + rest.length);
+                System.arraycopy(rest, 0, solution, prefix.length, rest.length);
+            }
+        }
+    }
+}
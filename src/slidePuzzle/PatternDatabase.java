@@ -0,0 +1,344 @@
+package slidePuzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Additive pattern database for one group of tiles.
+ * - Only moves of the group's tiles are counted, so disjoint groups can be summed
+ * - Built by a parallel, level-synchronous retrograde BFS from the goal that tracks the blank's region
+ * - Stored nibble-packed: each entry is (distance - Manhattan distance of the group) / 2, capped at 15
+ *   (the difference is always even, capping only lowers the value so it stays admissible)
+ * - Loaded through a read-only MappedByteBuffer, so the table lives off-heap and is shared by all solver threads
+ */
+public final class PatternDatabase {
+    private static final int MAGIC = 0x53504442; // "SPDB"
+    private static final int VERSION = 1;
+    private static final int UNSEEN = 0xFF;
+    private static final int[][] STEPS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+
+    private final int rows, cols, n;
+    private final int[] tiles;        // tile values in this group, in index order
+    private final long entries;       // n! / (n - k)!
+    private final ByteBuffer data;    // nibble-packed extras (heap or mapped)
+
+    private PatternDatabase(int rows, int cols, int[] tiles, ByteBuffer data) {
+        this.rows = rows;
+        this.cols = cols;
+        this.n = rows * cols;
+        this.tiles = tiles.clone();
+        this.entries = entryCount(n, tiles.length);
+        this.data = data;
+    }
+
+    public int[] tiles() { return tiles.clone(); }
+
+    /**
+     * Extra moves above the group's Manhattan distance (always even).
+     * where[value] = cell of that tile on the board being evaluated.
+     */
+    public int extra(int[] where) {
+        long idx = 0;
+        for (int i = 0; i < tiles.length; i++) {
+            int p = where[tiles[i]], r = p;
+            for (int j = 0; j < i; j++) if (where[tiles[j]] < p) r--;
+            idx = idx * (n - i) + r;
+        }
+        int b = data.get((int) (idx >>> 1)) & 0xFF;
+        return ((idx & 1) == 0 ? b & 0xF : b >>> 4) << 1;
+    }
+
+    // ---------------------------------------------------------------- build
+
+    /**
+     * Builds the database in memory using the given number of threads.
+     * The BFS runs over (placement, blank region) pairs: the blank roams its region of non-group cells for free,
+     * each group tile step costs 1, and the table keeps the minimum over regions.
+     * Needs about 3 * entries * cells / 8 bytes of working memory (~1.2 GB for a 6-tile group on 5x5).
+     */
+    public static PatternDatabase build(int rows, int cols, int[] tiles, int threads) {
+        Geometry geo = new Geometry(rows, cols);
+        int n = geo.n;
+        int k = tiles.length;
+        long count = entryCount(n, k);
+        if (count > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Pattern of " + k + " tiles is too large for a " + rows + "x" + cols + " board.");
+        int size = (int) count;
+        byte[] dist = new byte[size];          // min distance per placement
+        Arrays.fill(dist, (byte) UNSEEN);
+        long words = ((long) size * n + 63) >>> 6;
+        long[] current = new long[(int) words]; // frontier bits, state = placement * n + region representative
+        AtomicLongArray next = new AtomicLongArray((int) words);
+        AtomicLongArray visited = new AtomicLongArray((int) words);
+
+        int[] goal = new int[k];
+        for (int i = 0; i < k; i++) goal[i] = tiles[i] - 1;
+        long goalOccupied = 0;
+        for (int g : goal) goalOccupied |= 1L << g;
+        int goalIdx = (int) rank(goal, n);
+        long start = (long) goalIdx * n + geo.region(n - 1, geo.all & ~goalOccupied);
+        setBit(visited, start);
+        current[(int) (start >>> 6)] |= 1L << start;
+        dist[goalIdx] = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            int chunk = Math.max(1 << 14, size / (threads * 8) + 1);
+            for (int depth = 0; ; depth++) {
+                final int d = depth;
+                final long[] frontier = current;
+                List<Callable<Long>> jobs = new ArrayList<>();
+                for (int lo = 0; lo < size; lo += chunk) {
+                    final int from = lo, to = Math.min(size, lo + chunk);
+                    jobs.add(() -> expandLevel(geo, k, frontier, next, visited, dist, from, to, d));
+                }
+                long added = 0;
+                for (Future<Long> f : pool.invokeAll(jobs)) added += f.get();
+                if (added == 0) break;
+                for (int w = 0; w < current.length; w++) current[w] = next.getAndSet(w, 0);
+            }
+
+            // convert distances into nibble-packed extras over Manhattan distance
+            byte[] packed = new byte[(size + 1) >>> 1];
+            List<Callable<Long>> jobs = new ArrayList<>();
+            int evenChunk = chunk & ~1;
+            for (int lo = 0; lo < size; lo += evenChunk) {
+                final int from = lo, to = Math.min(size, lo + evenChunk);
+                jobs.add(() -> { pack(dist, packed, from, to, rows, cols, tiles); return 0L; });
+            }
+            for (Future<Long> f : pool.invokeAll(jobs)) f.get();
+            return new PatternDatabase(rows, cols, tiles, ByteBuffer.wrap(packed));
+        } catch (Exception e) {
+            throw new IllegalStateException("Pattern database build failed: " + e.getMessage(), e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /* Expands the frontier states of placements [from, to); plain byte writes to dist are safe because racing writers store the same value. */
+    private static long expandLevel(Geometry geo, int k, long[] frontier, AtomicLongArray next, AtomicLongArray visited,
+                                    byte[] dist, int from, int to, int depth) {
+        int n = geo.n;
+        int[] pos = new int[k];
+        long added = 0;
+        for (int idx = from; idx < to; idx++) {
+            long regions = bits(frontier, (long) idx * n, n);
+            if (regions == 0) continue;
+            long free = geo.all & ~unrank(idx, n, pos);
+            while (regions != 0) {
+                int rep = Long.numberOfTrailingZeros(regions);
+                regions &= regions - 1;
+                long reach = geo.fill(1L << rep, free);
+                for (int i = 0; i < k; i++) {
+                    int p = pos[i];
+                    for (int j = p * 4; j < p * 4 + 4; j++) {
+                        int q = geo.neighbor[j];
+                        if (q < 0 || (reach & (1L << q)) == 0) continue;
+                        // group tile steps into the blank's region; the blank is left on its old cell
+                        pos[i] = q;
+                        int nextIdx = (int) rank(pos, n);
+                        long nextFree = (free & ~(1L << q)) | (1L << p);
+                        long state = (long) nextIdx * n + geo.region(p, nextFree);
+                        if (setBit(visited, state)) {
+                            setBit(next, state);
+                            if ((dist[nextIdx] & 0xFF) == UNSEEN) dist[nextIdx] = (byte) (depth + 1);
+                            added++;
+                        }
+                    }
+                    pos[i] = p;
+                }
+            }
+        }
+        return added;
+    }
+
+    /* n bits starting at bit 'from' (n <= 64, may span two words). */
+    private static long bits(long[] words, long from, int n) {
+        int w = (int) (from >>> 6), shift = (int) (from & 63);
+        long v = words[w] >>> shift;
+        if (shift + n > 64 && w + 1 < words.length) v |= words[w + 1] << (64 - shift);
+        return n == 64 ? v : v & ((1L << n) - 1);
+    }
+
+    /* Atomically sets a bit; true if it was clear. */
+    private static boolean setBit(AtomicLongArray words, long bit) {
+        int w = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        while (true) {
+            long old = words.get(w);
+            if ((old & mask) != 0) return false;
+            if (words.compareAndSet(w, old, old | mask)) return true;
+        }
+    }
+
+    /* Cell bitboard helpers for boards up to 64 cells. */
+    private static final class Geometry {
+        final int n, cols;
+        final long all, notFirstCol, notLastCol;
+        final int[] neighbor;   // neighbor[cell * 4 + d] or -1
+
+        Geometry(int rows, int cols) {
+            this.n = rows * cols;
+            if (n > 64) throw new IllegalArgumentException("Pattern databases support boards up to 64 cells.");
+            this.cols = cols;
+            this.all = n == 64 ? -1L : (1L << n) - 1;
+            long first = 0, last = 0;
+            for (int r = 0; r < rows; r++) {
+                first |= 1L << (r * cols);
+                last |= 1L << (r * cols + cols - 1);
+            }
+            this.notFirstCol = all & ~first;
+            this.notLastCol = all & ~last;
+            this.neighbor = new int[n * 4];
+            for (int cell = 0; cell < n; cell++) {
+                int r = cell / cols, c = cell % cols;
+                for (int d = 0; d < 4; d++) {
+                    int nr = r + STEPS[d][0], nc = c + STEPS[d][1];
+                    neighbor[cell * 4 + d] = (nr >= 0 && nr < rows && nc >= 0 && nc < cols) ? nr * cols + nc : -1;
+                }
+            }
+        }
+
+        /* Cells of 'free' reachable from 'seed' (flood fill with shifts). */
+        long fill(long seed, long free) {
+            long reach = seed;
+            while (true) {
+                long grown = reach | ((reach << 1) & notFirstCol) | ((reach >>> 1) & notLastCol)
+                        | (reach << cols) | (reach >>> cols);
+                grown &= free | seed;
+                if (grown == reach) return reach;
+                reach = grown;
+            }
+        }
+
+        /* Region representative: lowest cell reachable from the blank at 'cell'. */
+        int region(int cell, long free) { return Long.numberOfTrailingZeros(fill(1L << cell, free)); }
+    }
+
+    private static void pack(byte[] dist, byte[] packed, int from, int to, int rows, int cols, int[] tiles) {
+        int n = rows * cols, k = tiles.length;
+        int[] pos = new int[k];
+        for (int idx = from; idx < to; idx++) {
+            unrank(idx, n, pos);
+            int manhattan = 0;
+            for (int i = 0; i < k; i++) {
+                int g = tiles[i] - 1;
+                manhattan += Math.abs(pos[i] / cols - g / cols) + Math.abs(pos[i] % cols - g % cols);
+            }
+            int extra = Math.min(15, ((dist[idx] & 0xFF) - manhattan) >> 1);
+            packed[idx >>> 1] |= (byte) ((idx & 1) == 0 ? extra : extra << 4);
+        }
+    }
+
+    /* Rank of k distinct cells (in group order) among n cells: a mixed-radix number with digits < n, n-1, ... */
+    private static long rank(int[] pos, int n) {
+        long idx = 0;
+        for (int i = 0; i < pos.length; i++) {
+            int r = pos[i];
+            for (int j = 0; j < i; j++) if (pos[j] < pos[i]) r--;
+            idx = idx * (n - i) + r;
+        }
+        return idx;
+    }
+
+    /* Inverse of rank; returns the occupied cells as a bitmask (boards up to 64 cells). */
+    private static long unrank(long idx, int n, int[] pos) {
+        int k = pos.length;
+        for (int i = k - 1; i >= 0; i--) {
+            pos[i] = (int) (idx % (n - i));
+            idx /= (n - i);
+        }
+        long used = 0;
+        for (int i = 0; i < k; i++) {
+            int r = pos[i], cell = 0;
+            // r-th free cell
+            while (true) {
+                if ((used & (1L << cell)) == 0 && r-- == 0) break;
+                cell++;
+            }
+            pos[i] = cell;
+            used |= 1L << cell;
+        }
+        return used;
+    }
+
+    private static long entryCount(int n, int k) {
+        long count = 1;
+        for (int i = 0; i < k; i++) count *= (n - i);
+        return count;
+    }
+
+    // ---------------------------------------------------------------- persistence
+
+    /** Writes the database to a file (via a temp file, so readers never see a partial table). */
+    public void write(Path file) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        if (dir != null) Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, "pdb", ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(headerSize(tiles.length));
+            header.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(cols).putInt(tiles.length);
+            for (int t : tiles) header.putInt(t);
+            header.putLong(entries).flip();
+            while (header.hasRemaining()) ch.write(header);
+            ByteBuffer body = data.duplicate();
+            body.clear();
+            while (body.hasRemaining()) ch.write(body);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Maps a database file read-only; the table stays off-heap. */
+    public static PatternDatabase load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            if (map.getInt() != MAGIC || map.getInt() != VERSION)
+                throw new IOException("Not a pattern database: " + file);
+            int rows = map.getInt(), cols = map.getInt(), k = map.getInt();
+            int[] tiles = new int[k];
+            for (int i = 0; i < k; i++) tiles[i] = map.getInt();
+            long entries = map.getLong();
+            if (entries != entryCount(rows * cols, k) || map.remaining() != (entries + 1) / 2)
+                throw new IOException("Corrupt pattern database: " + file);
+            return new PatternDatabase(rows, cols, tiles, map.slice());
+        }
+    }
+
+    private static int headerSize(int k) { return 4 * 5 + 4 * k + 8; }
+
+    /** File name used for a group on a given board size, e.g. 4x4_1-5-6-9-10-13.pdb */
+    static String fileName(int rows, int cols, int[] tiles) {
+        StringBuilder sb = new StringBuilder().append(rows).append('x').append(cols).append('_');
+        for (int i = 0; i < tiles.length; i++) sb.append(i == 0 ? "" : "-").append(tiles[i]);
+        return sb.append(".pdb").toString();
+    }
+
+    /* Prebuilds the default databases: java slidePuzzle.PatternDatabase <rows> <cols> [dir] */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: PatternDatabase <rows> <cols> [dir]");
+            return;
+        }
+        int rows = Integer.parseInt(args[0]), cols = Integer.parseInt(args[1]);
+        Path dir = Paths.get(args.length > 2 ? args[2] : PatternDatabaseSet.DEFAULT_DIR);
+        long start = System.currentTimeMillis();
+        PatternDatabaseSet set = PatternDatabaseSet.loadOrBuild(rows, cols, dir, true);
+        if (set == null) System.out.println("No default partition for " + rows + "x" + cols + ".");
+        else System.out.println("Pattern databases ready in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+}
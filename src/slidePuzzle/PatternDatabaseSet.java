@@ -0,0 +1,76 @@
+package slidePuzzle;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Disjoint additive pattern databases for one board size.
+ * - Default partitions: 6-6-3 for 4x4 and 6-6-6-6 for 5x5
+ * - Loaded sets are cached per size, so every solver (and thread) shares the same mapped tables
+ */
+public final class PatternDatabaseSet {
+    public static final String DEFAULT_DIR = "pdb";
+    private static final Map<String, PatternDatabaseSet> LOADED = new ConcurrentHashMap<>();
+
+    private final int rows, cols;
+    private final PatternDatabase[] databases;
+    private final int[] groupOf;   // groupOf[value] = index of the database holding that tile
+
+    private PatternDatabaseSet(int rows, int cols, PatternDatabase[] databases) {
+        this.rows = rows;
+        this.cols = cols;
+        this.databases = databases;
+        this.groupOf = new int[rows * cols];
+        for (int g = 0; g < databases.length; g++)
+            for (int t : databases[g].tiles()) groupOf[t] = g;
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int groups() { return databases.length; }
+    public int groupOf(int value) { return groupOf[value]; }
+
+    /** Extra moves over Manhattan distance for one group; where[value] = cell. */
+    public int extra(int group, int[] where) { return databases[group].extra(where); }
+
+    /** Default tile groups for a board size, or null if there is none. */
+    public static int[][] defaultPartition(int rows, int cols) {
+        if (rows == 4 && cols == 4)
+            return new int[][]{{1, 5, 6, 9, 10, 13}, {7, 8, 11, 12, 14, 15}, {2, 3, 4}};
+        if (rows == 5 && cols == 5)
+            return new int[][]{{1, 2, 3, 6, 7, 8}, {4, 5, 9, 10, 14, 15}, {11, 12, 16, 17, 21, 22}, {13, 18, 19, 20, 23, 24}};
+        return null;
+    }
+
+    /**
+     * Maps the default databases for this size from dir, building (and saving) missing ones if allowed.
+     * Returns null if the size has no default partition or a table is missing and building is not allowed.
+     */
+    public static PatternDatabaseSet loadOrBuild(int rows, int cols, Path dir, boolean build) throws IOException {
+        String key = rows + "x" + cols + "@" + dir.toAbsolutePath();
+        PatternDatabaseSet cached = LOADED.get(key);
+        if (cached != null) return cached;
+
+        int[][] partition = defaultPartition(rows, cols);
+        if (partition == null) return null;
+        synchronized (LOADED) {
+            cached = LOADED.get(key);
+            if (cached != null) return cached;
+            PatternDatabase[] dbs = new PatternDatabase[partition.length];
+            for (int g = 0; g < partition.length; g++) {
+                Path file = dir.resolve(PatternDatabase.fileName(rows, cols, partition[g]));
+                if (!Files.exists(file)) {
+                    if (!build) return null;
+                    PatternDatabase.build(rows, cols, partition[g], Runtime.getRuntime().availableProcessors()).write(file);
+                }
+                dbs[g] = PatternDatabase.load(file);
+            }
+            PatternDatabaseSet set = new PatternDatabaseSet(rows, cols, dbs);
+            LOADED.put(key, set);
+            return set;
+        }
+    }
+}
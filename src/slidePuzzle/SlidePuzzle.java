@@ -1,23 +1,43 @@
 package slidePuzzle;
 
 import common.Board;
+import common.CommandResult;
 import common.Game;
+import common.gameUtils.GameRecorder;
+import common.gameUtils.GameSave;
+import common.gameUtils.ReplayView;
 import common.gameUtils.Score;
 import common.gameUtils.Timer;
 import common.player.Player;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.AbstractMap;
 import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.Semaphore;
 
 /*
  Slide Puzzle implements the Game interface.
- Supports moving by direction or by tile ID.
+ Supports moving by direction or by tile ID, plus HINT/SOLVE backed by SlidePuzzleSolver.
  */
 public class SlidePuzzle extends Game {
+    private static final long HEADLESS_NODE_LIMIT = 2_000_000L;   // about a second of search per HINT/SOLVE
+    /* Searches running at once over all headless games (servers host thousands of them in one JVM) */
+    private static final Semaphore HEADLESS_SOLVES = new Semaphore(Runtime.getRuntime().availableProcessors());
     private SlidePuzzleBoard board;
     private final int rows, cols;
     private final Random rng;
+    private SlidePuzzleSolver solver;   // created on first HINT/SOLVE
+    private Direction[] plan;           // cached optimal solution, null when stale
+    private int planStep;
+    private GameRecorder recorder;      // null when the session is not recorded
+    private GameSave save;              // checkpointed after every move, null when not saved
+    private long startMillis;           // play time so far is now - startMillis
+    private int moves;
+    private boolean console;            // set by play(); only console games build pattern databases
+    private boolean assisted;           // SOLVE played moves, so a solved puzzle is not the player's time
 
     public SlidePuzzle(int rows, int cols, long seed) {
         this.rows = rows;
@@ -37,17 +57,63 @@ public class SlidePuzzle extends Game {
         int rows = dimensions.getKey();
         int cols = dimensions.getValue();
 
-        long start = System.currentTimeMillis();
-
         SlidePuzzle game = new SlidePuzzle(rows, cols, System.currentTimeMillis());
-        game.start();
+        game.play(player.getName(), score, GameSave.create(GameRecorder.SLIDE_PUZZLE, rows, cols,
+                new String[] { player.getName() }), 0, 0);
+    }
+
+    /* Continues a saved puzzle; throws IllegalArgumentException if the state does not fit the board */
+    public static void resumeSlidePuzzle(Score score, GameSave.Info info, byte[] state) {
+        SlidePuzzle game = new SlidePuzzle(info.rows, info.cols, System.currentTimeMillis());
+        game.board.restore(state);
+        if (!game.board.isSolvable()) throw new IllegalArgumentException("Saved layout cannot be solved.");
+        game.play(info.players()[0], score, GameSave.reopen(info), info.elapsedMillis, info.moves);
+    }
+
+    /* Plays from the current board with recording and autosave; the score is saved once the player solves the puzzle */
+    private void play(String playerName, Score score, GameSave save, long elapsedMillis, int movesSoFar) {
+        console = true;
+        this.save = save;
+        moves = movesSoFar;
+        startMillis = System.currentTimeMillis() - elapsedMillis;
+        checkpoint();
+        GameRecorder rec = GameRecorder.start(GameRecorder.SLIDE_PUZZLE, rows, cols,
+                new String[] { playerName }, board.snapshot());
+        setRecorder(rec);
+        start();
+        if (rec != null) rec.close();
+
+        if (!isSolved()) {
+            if (save.save(board.snapshot(), System.currentTimeMillis() - startMillis, moves))
+                System.out.println("Game saved; continue it with Resume in the main menu.");
+            return;
+        }
+        save.delete();
+        long millis = System.currentTimeMillis() - startMillis;
+        if (assisted) System.out.println("Solved with SOLVE, so no score is saved.");
+        else score.saveScore(playerName, "Slide Puzzle", millis, playerName);
+        System.out.println("Game finished in " + Timer.formatTime(millis / 1000));
+    }
+
+    /* Autosave: one small atomic file replace per move */
+    private void checkpoint() {
+        if (save != null) save.save(board.snapshot(), System.currentTimeMillis() - startMillis, moves);
+    }
 
-        long end = System.currentTimeMillis();
-        long totalSec = (end - start) / 1000;
-        String timer = Timer.formatTime(totalSec);
+    /* Records every blank move from now on (null stops recording) */
+    public void setRecorder(GameRecorder recorder) {
+        this.recorder = recorder;
+    }
 
-        score.saveScore(player.getName(), "Slide Puzzle", timer, player.getName());
-        System.out.println("Game finished in " + timer);
+    /* Replay of a recording: move codes are blank directions (Direction ordinals) */
+    public static ReplayView replayView(int rows, int cols) {
+        SlidePuzzleBoard b = new SlidePuzzleBoard(rows, cols);
+        return new ReplayView() {
+            @Override public void restore(byte[] snapshot) { b.restore(snapshot); }
+            @Override public void apply(int move) { b.slide(Direction.values()[move]); }
+            @Override public String describe(int move) { return Direction.values()[move].toString(); }
+            @Override public String render() { return b.displayBoard(); }
+        };
     }
 
     /* Starts the puzzle */
@@ -57,68 +123,87 @@ public class SlidePuzzle extends Game {
         System.out.println(state());
 
         while (!isSolved()) {
-            System.out.print("Move (U/D/L/R or tile <id> or EXIT): ");
-            String input = sc.nextLine().trim().toUpperCase();
-            if (input.isEmpty()) continue;
-            if (input.equals("EXIT")) break;
-
-            String[] parts = input.split("\\s+");
-            String cmd = parts[0];
-            boolean valid = false;
-
-            // Handle direction moves
-            if (cmd.equals("MOVE") || cmd.equals("M") ||
-                    cmd.equals("U") || cmd.equals("D") ||
-                    cmd.equals("L") || cmd.equals("R")) {
-
-                String dir = (cmd.equals("MOVE") && parts.length > 1) ? parts[1] : cmd;
-                Direction direction = null;
-
-                switch (dir) {
-                    case "U": direction = Direction.UP; break;
-                    case "D": direction = Direction.DOWN; break;
-                    case "L": direction = Direction.LEFT; break;
-                    case "R": direction = Direction.RIGHT; break;
-                    default:
-                        System.out.println("Invalid direction.");
-                }
-
-                if (direction != null) {
-                    valid = move(direction);
-                    if (!valid) System.out.println("Illegal move!");
-                }
-            }
+            System.out.print("Move (U/D/L/R, tile <id>, HINT, SOLVE or EXIT): ");
+            CommandResult result = apply(sc.nextLine());
+            if (result.status == CommandResult.Status.QUIT) break;
+            if (!result.message.isEmpty()) System.out.println(result.message);
+            // boards after moves and errors; HINT/SOLVE output stands on its own
+            if (result.status == CommandResult.Status.REJECTED || result.accepted() && result.message.isEmpty())
+                System.out.println(state());
+        }
+        if (isSolved())
+            System.out.println("🎉 Puzzle Solved!");
+        else
+            System.out.println("Game exited.");
+    }
 
-            // Handle tile number moves
-            else if (cmd.equals("TILE") || cmd.matches("\\d+")) {
-                int tileId;
-                try {
-                    tileId = cmd.equals("TILE") ? Integer.parseInt(parts[1]) : Integer.parseInt(cmd);
-                    valid = moveTile(tileId);
-                    if (!valid) System.out.println("Illegal move!");
-                } catch (Exception e) {
-                    System.out.println("Invalid tile number.");
-                }
+    /* One line of the game loop: U/D/L/R (or MOVE d, M), TILE id (or just the id), HINT, SOLVE, EXIT */
+    @Override
+    public CommandResult apply(String command) {
+        String input = command.trim().toUpperCase();
+        if (input.isEmpty()) return CommandResult.info("");
+        if (input.equals("EXIT")) return CommandResult.quit("Game exited.");
+        if (isSolved()) return CommandResult.rejected("Puzzle already solved.");
+
+        String[] parts = input.split("\\s+");
+        String cmd = parts[0];
+
+        // Handle direction moves
+        if (cmd.equals("MOVE") || cmd.equals("M") ||
+                cmd.equals("U") || cmd.equals("D") ||
+                cmd.equals("L") || cmd.equals("R")) {
+
+            String dir = (cmd.equals("MOVE") && parts.length > 1) ? parts[1] : cmd;
+            Direction direction;
+            switch (dir) {
+                case "U": direction = Direction.UP; break;
+                case "D": direction = Direction.DOWN; break;
+                case "L": direction = Direction.LEFT; break;
+                case "R": direction = Direction.RIGHT; break;
+                default: return CommandResult.rejected("Invalid direction.");
             }
+            if (!move(direction)) return CommandResult.rejected("Illegal move!");
+            return isSolved() ? CommandResult.finished() : CommandResult.moved();
+        }
 
-            // Handle invalid input
-            else {
-                System.out.println("Invalid command.");
+        // Handle tile number moves
+        if (cmd.equals("TILE") || cmd.matches("\\d+")) {
+            int tileId;
+            try {
+                tileId = cmd.equals("TILE") ? Integer.parseInt(parts[1]) : Integer.parseInt(cmd);
+            } catch (RuntimeException e) {
+                return CommandResult.rejected("Invalid tile number.");
             }
+            if (!moveTile(tileId)) return CommandResult.rejected("Illegal move!");
+            return isSolved() ? CommandResult.finished() : CommandResult.moved();
+        }
 
-            System.out.println(state());
+        // Handle solver commands
+        if (cmd.equals("HINT")) {
+            boolean search = plan == null;
+            StringBuilder notes = new StringBuilder();
+            Direction next = hint(notes);
+            if (next == null) return CommandResult.info(notes + "No hint: the search gave up (puzzle too large to solve optimally).");
+            return CommandResult.info(notes + (search ? "(searched " + solver.nodesExpanded() + " nodes)\n" : "")
+                    + "Hint: " + next + " (" + (plan.length - planStep) + " moves left with optimal play)");
         }
-        if (isSolved())
-            System.out.println("🎉 Puzzle Solved!");
-        else
-            System.out.println("Game exited.");
+        if (cmd.equals("SOLVE")) {
+            StringBuilder steps = new StringBuilder();
+            if (!solve(steps))   // the search gave up before any move was made
+                return CommandResult.info(steps + "Could not solve: the search gave up (puzzle too large to solve optimally).");
+            steps.setLength(Math.max(0, steps.length() - 1));
+            return CommandResult.finished(steps.toString());
+        }
+
+        return CommandResult.rejected("Invalid command.");
     }
 
     /* Resets puzzle with shuffled board */
     @Override
     public void reset() {
         board = new SlidePuzzleBoard(rows, cols);
-        board.shuffleSolvable(rows * cols * 30, rng);
+        board.shuffleSolvable(rng);
+        plan = null;
     }
 
     /*Prints current state */
@@ -129,13 +214,107 @@ public class SlidePuzzle extends Game {
 
     /* Moves the blank tile in a direction (U/D/L/R) */
     public boolean move(Direction d) {
-        return board.slide(d);
+        if (!board.slide(d)) return false;
+        if (recorder != null) recorder.move(d.ordinal(), board::snapshot);
+        moves++;
+        checkpoint();
+        // keep the cached plan while the player follows it
+        if (plan != null && planStep < plan.length && plan[planStep] == d) planStep++;
+        else plan = null;
+        return true;
     }
 
     /*Moves a specific tile number (if adjacent to blank) */
     public boolean moveTile(int tileId) {
         if (tileId <= 0) return false;
-        return board.slide(tileId);
+        int blank = board.state().blank();
+        if (!board.slide(tileId)) return false;
+        if (recorder != null) recorder.move(blankDirection(blank).ordinal(), board::snapshot);
+        moves++;
+        checkpoint();
+        plan = null;
+        return true;
+    }
+
+    /* Direction the blank took from cell 'from' to where it is now */
+    private Direction blankDirection(int from) {
+        int to = board.state().blank();
+        int dr = to / cols - from / cols, dc = to % cols - from % cols;
+        for (Direction d : Direction.values()) if (d.dRow == dr && d.dCol == dc) return d;
+        throw new IllegalStateException("Blank did not move to a neighbouring cell.");
+    }
+
+    /* Next blank move of an optimal solution, or null if the search gives up */
+    public Direction hint() {
+        StringBuilder notes = new StringBuilder();
+        Direction next = hint(notes);
+        System.out.print(notes);
+        return next;
+    }
+
+    /* Same; solver setup messages (pattern databases) go to notes, one line each */
+    private Direction hint(StringBuilder notes) {
+        if (isSolved()) return null;
+        if (plan == null) {
+            if (solver == null) solver = newSolver(notes);
+            plan = search();
+            planStep = 0;
+            if (plan == null) return null;
+        }
+        return plan[planStep];
+    }
+
+    /* Console games search alone; headless ones wait for a shared slot (their node budget is small) */
+    private Direction[] search() {
+        if (console) return solver.solve(board);
+        HEADLESS_SOLVES.acquireUninterruptibly();
+        try {
+            return solver.solve(board);
+        } finally {
+            HEADLESS_SOLVES.release();
+        }
+    }
+
+    /*
+     * Solver with pattern databases when available (4x4 tables are built once, bigger ones must be prebuilt).
+     * Headless games (server, batch) only load prebuilt tables: a build takes every core for a while.
+     * They also give up after HEADLESS_NODE_LIMIT nodes instead of the solver's default budget.
+     */
+    private SlidePuzzleSolver newSolver(StringBuilder notes) {
+        SlidePuzzleSolver s = new SlidePuzzleSolver(rows, cols);
+        if (!console) s.setNodeLimit(HEADLESS_NODE_LIMIT);
+        if (PatternDatabaseSet.defaultPartition(rows, cols) == null) return s;
+        Path dir = Paths.get(PatternDatabaseSet.DEFAULT_DIR);
+        boolean build = console && rows * cols <= 16;
+        try {
+            if (build) notes.append("Loading pattern databases (built once on first use)...\n");
+            s.usePatternDatabases(PatternDatabaseSet.loadOrBuild(rows, cols, dir, build));
+        } catch (IOException e) {
+            notes.append("Pattern databases unavailable: ").append(e.getMessage()).append('\n');
+        }
+        return s;
+    }
+
+    /* Plays the remaining optimal solution move by move */
+    public boolean solve() {
+        StringBuilder steps = new StringBuilder();
+        boolean solved = solve(steps);
+        System.out.print(steps);
+        return solved;
+    }
+
+    /* Same, writing each step and board to steps */
+    private boolean solve(StringBuilder steps) {
+        if (hint(steps) == null) return isSolved();
+        assisted = true;
+        int total = plan.length;
+        while (plan != null && planStep < total) {
+            Direction d = plan[planStep];
+            move(d);
+            steps.append("Step ").append(planStep).append('/').append(total).append(": ").append(d).append('\n');
+            steps.append(state()).append('\n');
+        }
+        return isSolved();
     }
 
     /*Checks if puzzle solved */
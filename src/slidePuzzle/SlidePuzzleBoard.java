@@ -1,112 +1,90 @@
 package slidePuzzle;
 
 import common.Board;
-import java.util.*;
+import java.util.Random;
 
 /**
  * Internal logic of the Slide Puzzle board.
- * Now uses SlideTile[] to satisfy "Tile/Space" usage without changing behavior.
+ * State lives in a primitive SlideState; SlideTile is only created as a view for display.
  */
 public class SlidePuzzleBoard extends Board<String> {
     private final int rows;
     private final int cols;
-    private final SlideTile[] tiles; // 0-value = blank tile
+    private final SlideState state;
+    private final Position[] positions; // cached Position per cell, so blankPos() never allocates
 
     public SlidePuzzleBoard(int rows, int cols) {
         if (rows < 2 || cols < 2)
             throw new IllegalArgumentException("Minimum puzzle size is 2x2.");
         this.rows = rows;
         this.cols = cols;
-        this.tiles = new SlideTile[rows * cols];
-        // initialize solved state
-        for (int i = 0; i < tiles.length - 1; i++) tiles[i] = new SlideTile(i / cols, i % cols, i + 1);
-        tiles[tiles.length - 1] = new SlideTile((tiles.length - 1)/cols, (tiles.length - 1)%cols, 0);
+        this.state = new SlideState(rows, cols); // solved state
+        this.positions = positionsFor(rows, cols);
     }
 
     /** Copy constructor */
     public SlidePuzzleBoard(SlidePuzzleBoard other) {
         this.rows = other.rows;
         this.cols = other.cols;
-        this.tiles = new SlideTile[other.tiles.length];
-        for (int i = 0; i < other.tiles.length; i++) {
-            SlideTile t = other.tiles[i];
-            tiles[i] = new SlideTile(t.getRow(), t.getCol(), t.getValue());
-        }
+        this.state = new SlideState(other.state);
+        this.positions = other.positions;
+    }
+
+    private static Position[] positionsFor(int rows, int cols) {
+        Position[] ps = new Position[rows * cols];
+        for (int i = 0; i < ps.length; i++) ps[i] = Position.of(i / cols, i % cols);
+        return ps;
     }
 
     public int rows() { return rows; }
     public int cols() { return cols; }
 
+    /** Primitive state backing this board (shared, not a copy). */
+    public SlideState state() { return state; }
+
+    /** Tile value at (r, c); 0 = blank. */
+    public int valueAt(int r, int c) { return state.valueAt(idx(r, c)); }
+
+    /** Display view of the tile at (r, c). */
+    public SlideTile tileAt(int r, int c) { return new SlideTile(r, c, valueAt(r, c)); }
+
     @Override
-    public boolean isSolved() {
-        for (int i = 0; i < tiles.length - 1; i++)
-            if (tiles[i].getValue() != i + 1) return false;
-        return tiles[tiles.length - 1].getValue() == 0;
-    }
+    public boolean isSolved() { return state.isSolved(); }
 
-    public Position blankPos() {
-        int b = indexOf(0);
-        return Position.of(b / cols, b % cols);
-    }
+    public Position blankPos() { return positions[state.blank()]; }
 
-    public boolean slide(Direction dir) {
-        Position blank = blankPos();
-        int nr = blank.row + dir.dRow;
-        int nc = blank.col + dir.dCol;
-        if (!inBounds(nr, nc)) return false;
-        swap(idx(blank.row, blank.col), idx(nr, nc));
-        return true;
-    }
+    public boolean slide(Direction dir) { return state.moveBlank(dir.dRow, dir.dCol); }
 
-    public boolean slide(int tileValue) {
-        if (!canSlide(tileValue)) return false;
-        int t = indexOf(tileValue);
-        int b = indexOf(0);
-        swap(t, b);
-        return true;
-    }
+    public boolean slide(int tileValue) { return state.slide(tileValue); }
 
-    public boolean canSlide(int tileValue) {
-        if (tileValue <= 0 || tileValue >= rows * cols) return false;
-        int tileIdx = indexOf(tileValue);
-        int blankIdx = indexOf(0);
-        int tr = tileIdx / cols, tc = tileIdx % cols;
-        int br = blankIdx / cols, bc = blankIdx % cols;
-        return Math.abs(tr - br) + Math.abs(tc - bc) == 1;
-    }
+    public boolean canSlide(int tileValue) { return state.canSlide(tileValue); }
 
-    public void shuffleSolvable(int steps, Random rng) {
-        for (int s = 0; s < steps; s++) {
-            List<Direction> moves = legalBlankMoves();
-            slide(moves.get(rng.nextInt(moves.size())));
-        }
-    }
+    /** Replaces the board with a uniformly random solvable (and unsolved) layout. */
+    public void shuffleSolvable(Random rng) { state.shuffle(rng); }
 
-    private List<Direction> legalBlankMoves() {
-        List<Direction> ds = new ArrayList<>(4);
-        Position b = blankPos();
-        if (inBounds(b.row - 1, b.col)) ds.add(Direction.UP);
-        if (inBounds(b.row + 1, b.col)) ds.add(Direction.DOWN);
-        if (inBounds(b.row, b.col - 1)) ds.add(Direction.LEFT);
-        if (inBounds(b.row, b.col + 1)) ds.add(Direction.RIGHT);
-        return ds;
-    }
+    /** True if the current layout can be solved. */
+    public boolean isSolvable() { return state.isSolvable(); }
 
-    private void swap(int i, int j) {
-        int vi = tiles[i].getValue();
-        tiles[i].setValue(tiles[j].getValue());
-        tiles[j].setValue(vi);
+    /** Solvability check for an arbitrary row-major layout (0 = blank). */
+    public static boolean isSolvable(int rows, int cols, int[] values) {
+        return SlideState.isSolvable(rows, cols, values);
     }
 
-    private int idx(int r, int c) { return r * cols + c; }
+    /** Tile value per cell, one byte each (the format of recordings). */
+    public byte[] snapshot() {
+        byte[] data = new byte[rows * cols];
+        state.copyTo(data);
+        return data;
+    }
 
-    private int indexOf(int value) {
-        for (int i = 0; i < tiles.length; i++)
-            if (tiles[i].getValue() == value) return i;
-        return -1;
+    /** Loads a snapshot() layout; throws IllegalArgumentException if it is not one for this size. */
+    public void restore(byte[] data) {
+        int[] values = new int[data.length];
+        for (int i = 0; i < data.length; i++) values[i] = data[i] & 0xFF;
+        state.load(values);
     }
 
-    private boolean inBounds(int r, int c) { return r >= 0 && r < rows && c >= 0 && c < cols; }
+    private int idx(int r, int c) { return r * cols + c; }
 
     @Override
     public String displayBoard() {
@@ -115,9 +93,7 @@ public class SlidePuzzleBoard extends Board<String> {
 
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < cols; c++) {
-                int v = tiles[idx(r, c)].getValue();
-                if (v == 0) sb.append(String.format("%" + width + "s", "_"));
-                else       sb.append(String.format("%" + width + "d", v));
+                sb.append(String.format("%" + width + "s", tileAt(r, c)));
             }
             sb.append("\n");
         }
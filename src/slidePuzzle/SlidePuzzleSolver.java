@@ -0,0 +1,245 @@
+package slidePuzzle;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optimal slide puzzle solver (IDA*).
+ * - Heuristic: Manhattan distance + max(linear conflict, additive pattern database extras), all updated incrementally
+ * - Searches on a primitive byte[] copy of the board, no objects per node
+ * - Solutions are returned as blank moves (same meaning as SlidePuzzleBoard.slide(Direction))
+ */
+public class SlidePuzzleSolver {
+    public static final long DEFAULT_NODE_LIMIT = 200_000_000L;
+
+    static final int FOUND = -1;
+    static final int ABORTED = -2;
+    private static final Direction[] DIRS = Direction.values(); // UP, DOWN, LEFT, RIGHT (opposite = d ^ 1)
+
+    private final int rows, cols, n;
+    private final byte[] tiles;          // value per cell (unsigned), 0 = blank
+    private final int[] where;           // cell per value
+    private final int[] neighbor;        // neighbor[cell * 4 + d] = target cell or -1
+    private final int[] dist;            // dist[value * n + cell] = Manhattan distance of value at cell
+    private final int[] goalRow, goalCol;
+    private final int[] rowConflict, colConflict;
+    private final int[] line, lis;       // scratch for linear conflict
+    private PatternDatabaseSet pdb;      // optional, shared between solvers
+    private int[] groupExtra;            // current extra per pattern group
+
+    private int blank, manhattan, conflicts, extras;
+    private byte[] path = new byte[64];
+    private int solutionLength;
+    private long nodes;
+    private long nodeLimit = DEFAULT_NODE_LIMIT;
+    private AtomicBoolean cancel;        // set by parallel searches once another subtree has a solution
+
+    public SlidePuzzleSolver(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.n = rows * cols;
+        this.tiles = new byte[n];
+        this.where = new int[n];
+        this.neighbor = new int[n * 4];
+        this.dist = new int[n * n];
+        this.goalRow = new int[n];
+        this.goalCol = new int[n];
+        this.rowConflict = new int[rows];
+        this.colConflict = new int[cols];
+        this.line = new int[Math.max(rows, cols)];
+        this.lis = new int[Math.max(rows, cols)];
+
+        for (int v = 1; v < n; v++) {
+            goalRow[v] = (v - 1) / cols;
+            goalCol[v] = (v - 1) % cols;
+            for (int cell = 0; cell < n; cell++)
+                dist[v * n + cell] = Math.abs(cell / cols - goalRow[v]) + Math.abs(cell % cols - goalCol[v]);
+        }
+        for (int cell = 0; cell < n; cell++) {
+            int r = cell / cols, c = cell % cols;
+            for (int d = 0; d < 4; d++) {
+                int nr = r + DIRS[d].dRow, nc = c + DIRS[d].dCol;
+                neighbor[cell * 4 + d] = (nr >= 0 && nr < rows && nc >= 0 && nc < cols) ? nr * cols + nc : -1;
+            }
+        }
+    }
+
+    /** Adds pattern database lookups to the heuristic (null to turn them off). */
+    public void usePatternDatabases(PatternDatabaseSet set) {
+        if (set != null && (set.rows() != rows || set.cols() != cols))
+            throw new IllegalArgumentException("Pattern databases are for " + set.rows() + "x" + set.cols() + " boards.");
+        this.pdb = set;
+        this.groupExtra = set == null ? null : new int[set.groups()];
+    }
+
+    /** Upper bound on expanded nodes before a search gives up (returns null). */
+    public void setNodeLimit(long nodeLimit) { this.nodeLimit = nodeLimit; }
+
+    /** Nodes expanded by the last solve call. */
+    public long nodesExpanded() { return nodes; }
+
+    /**
+     * Returns an optimal sequence of blank moves that solves the board,
+     * or null if the board is unsolvable or the node limit was hit first.
+     */
+    public Direction[] solve(SlidePuzzleBoard board) {
+        if (board.rows() != rows || board.cols() != cols)
+            throw new IllegalArgumentException("Solver is for " + rows + "x" + cols + " boards.");
+        nodes = 0;
+        if (!board.isSolvable()) return null;
+        load(board);
+        int bound = heuristic();
+        while (true) {
+            if (path.length <= bound) path = new byte[bound * 2];
+            int t = search(0, bound, -1);
+            if (t == FOUND) return solutionFrom(0);
+            if (t == ABORTED || t == Integer.MAX_VALUE) return null;
+            bound = t;
+        }
+    }
+
+    /** Heuristic value of a board (admissible lower bound on its solution length). */
+    public int estimate(SlidePuzzleBoard board) {
+        load(board);
+        return heuristic();
+    }
+
+    /**
+     * One bounded pass below a node that is g moves from the root; parallel IDA* hands out subtrees this way.
+     * Returns FOUND (moves via solutionFrom(g)), ABORTED, or the smallest f above the bound.
+     */
+    int searchBelow(SlidePuzzleBoard node, int g, int bound, int prevMove, AtomicBoolean cancel) {
+        load(node);
+        nodes = 0;
+        this.cancel = cancel;
+        if (path.length <= bound) path = new byte[bound * 2];
+        try {
+            return search(g, bound, prevMove);
+        } finally {
+            this.cancel = null;
+        }
+    }
+
+    /* Moves found by the last successful search, starting at depth g. */
+    Direction[] solutionFrom(int g) {
+        Direction[] moves = new Direction[solutionLength - g];
+        for (int i = g; i < solutionLength; i++) moves[i - g] = DIRS[path[i]];
+        return moves;
+    }
+
+    private void load(SlidePuzzleBoard board) {
+        SlideState state = board.state();
+        state.copyTo(tiles);
+        blank = state.blank();
+        manhattan = 0;
+        for (int cell = 0; cell < n; cell++) {
+            int v = tiles[cell] & 0xFF;
+            where[v] = cell;
+            if (v != 0) manhattan += dist[v * n + cell];
+        }
+        conflicts = 0;
+        for (int r = 0; r < rows; r++) conflicts += rowConflict[r] = rowLinearConflict(r);
+        for (int c = 0; c < cols; c++) conflicts += colConflict[c] = colLinearConflict(c);
+        extras = 0;
+        if (pdb != null)
+            for (int g = 0; g < groupExtra.length; g++) extras += groupExtra[g] = pdb.extra(g, where);
+    }
+
+    /* Linear conflicts and pattern extras both sit on top of Manhattan distance, so only the larger one is added. */
+    private int heuristic() { return manhattan + Math.max(conflicts, extras); }
+
+    /* Depth-first search bounded by f = g + h; returns FOUND, ABORTED or the smallest f over the bound. */
+    private int search(int g, int bound, int prev) {
+        int f = g + heuristic();
+        if (f > bound) return f;
+        if (manhattan == 0) { solutionLength = g; return FOUND; }
+        if (++nodes > nodeLimit) return ABORTED;
+        if ((nodes & 0xFFF) == 0 && cancel != null && cancel.get()) return ABORTED;
+
+        int min = Integer.MAX_VALUE;
+        int from = blank;
+        for (int d = 0; d < 4; d++) {
+            if (d == (prev ^ 1)) continue;   // never undo the previous move
+            int to = neighbor[from * 4 + d];
+            if (to < 0) continue;
+
+            // tile at 'to' slides into the blank at 'from'
+            int v = tiles[to] & 0xFF;
+            int dm = dist[v * n + from] - dist[v * n + to];
+            tiles[from] = (byte) v;
+            tiles[to] = 0;
+            blank = to;
+            where[v] = from;
+            manhattan += dm;
+
+            // only the two lines the tile left/entered can change their conflicts
+            boolean vertical = d < 2;
+            int a = vertical ? to / cols : to % cols;
+            int b = vertical ? from / cols : from % cols;
+            int[] lines = vertical ? rowConflict : colConflict;
+            int oldA = lines[a], oldB = lines[b];
+            lines[a] = vertical ? rowLinearConflict(a) : colLinearConflict(a);
+            lines[b] = vertical ? rowLinearConflict(b) : colLinearConflict(b);
+            conflicts += lines[a] + lines[b] - oldA - oldB;
+
+            // only the moved tile's pattern group can change
+            int group = -1, oldExtra = 0;
+            if (pdb != null) {
+                group = pdb.groupOf(v);
+                oldExtra = groupExtra[group];
+                groupExtra[group] = pdb.extra(group, where);
+                extras += groupExtra[group] - oldExtra;
+            }
+
+            path[g] = (byte) d;
+            int t = search(g + 1, bound, d);
+
+            if (group >= 0) {
+                extras -= groupExtra[group] - oldExtra;
+                groupExtra[group] = oldExtra;
+            }
+
+            conflicts -= lines[a] + lines[b] - oldA - oldB;
+            lines[a] = oldA;
+            lines[b] = oldB;
+            manhattan -= dm;
+            blank = from;
+            where[v] = to;
+            tiles[to] = (byte) v;
+            tiles[from] = 0;
+
+            if (t == FOUND || t == ABORTED) return t;
+            if (t < min) min = t;
+        }
+        return min;
+    }
+
+    private int rowLinearConflict(int r) {
+        int k = 0;
+        for (int c = 0, cell = r * cols; c < cols; c++, cell++) {
+            int v = tiles[cell] & 0xFF;
+            if (v != 0 && goalRow[v] == r) line[k++] = goalCol[v];
+        }
+        return 2 * (k - longestIncreasing(k));
+    }
+
+    private int colLinearConflict(int c) {
+        int k = 0;
+        for (int r = 0, cell = c; r < rows; r++, cell += cols) {
+            int v = tiles[cell] & 0xFF;
+            if (v != 0 && goalCol[v] == c) line[k++] = goalRow[v];
+        }
+        return 2 * (k - longestIncreasing(k));
+    }
+
+    /* Tiles outside the longest in-order subsequence must each step out of the line and back (2 moves). */
+    private int longestIncreasing(int k) {
+        int best = 0;
+        for (int i = 0; i < k; i++) {
+            lis[i] = 1;
+            for (int j = 0; j < i; j++)
+                if (line[j] < line[i] && lis[j] + 1 > lis[i]) lis[i] = lis[j] + 1;
+            if (lis[i] > best) best = lis[i];
+        }
+        return best;
+    }
+}
@@ -0,0 +1,177 @@
+package slidePuzzle;
+
+import java.util.Random;
+
+/**
+ * Primitive engine behind SlidePuzzleBoard.
+ * - Boards up to 16 cells are packed into a single long (4 bits per cell), larger ones use a byte[]
+ * - Caches the blank cell, a value -> cell inverse and the number of misplaced cells,
+ *   so moves, canSlide and isSolved are O(1) and never allocate
+ */
+public final class SlideState {
+    public static final int MAX_CELLS = 256;
+    private static final int PACKED_CELLS = 16;
+
+    private final int rows, cols, n;
+    private long packed;          // used when n <= 16
+    private final byte[] cells;   // used when n > 16, null otherwise
+    private final byte[] where;   // where[value] = cell (unsigned)
+    private int misplaced;        // cells whose value differs from the solved layout
+
+    /** Creates a solved rows x cols state. */
+    public SlideState(int rows, int cols) {
+        if (rows < 1 || cols < 1) throw new IllegalArgumentException("Puzzle needs at least one row and column.");
+        if (rows > MAX_CELLS / cols)   // rows * cols could overflow
+            throw new IllegalArgumentException("Maximum puzzle size is " + MAX_CELLS + " cells.");
+        this.rows = rows;
+        this.cols = cols;
+        this.n = rows * cols;
+        this.cells = n > PACKED_CELLS ? new byte[n] : null;
+        this.where = new byte[n];
+        for (int cell = 0; cell < n; cell++) put(cell, goal(cell));
+        this.misplaced = 0;
+    }
+
+    /** Copy constructor */
+    public SlideState(SlideState other) {
+        this.rows = other.rows;
+        this.cols = other.cols;
+        this.n = other.n;
+        this.packed = other.packed;
+        this.cells = other.cells == null ? null : other.cells.clone();
+        this.where = other.where.clone();
+        this.misplaced = other.misplaced;
+    }
+
+    public int rows() { return rows; }
+    public int cols() { return cols; }
+    public int size() { return n; }
+
+    public int valueAt(int cell) {
+        return cells == null ? (int) (packed >>> (cell << 2)) & 0xF : cells[cell] & 0xFF;
+    }
+
+    public int cellOf(int value) { return where[value] & 0xFF; }
+    public int blank() { return where[0] & 0xFF; }
+    public boolean isSolved() { return misplaced == 0; }
+
+    /** Value that belongs in the given cell when solved (0 for the last cell). */
+    public int goal(int cell) { return cell == n - 1 ? 0 : cell + 1; }
+
+    /** Moves the blank by (dRow, dCol); false if that leaves the board. */
+    public boolean moveBlank(int dRow, int dCol) {
+        int b = blank();
+        int r = b / cols + dRow, c = b % cols + dCol;
+        if (r < 0 || r >= rows || c < 0 || c >= cols) return false;
+        swapWithBlank(r * cols + c);
+        return true;
+    }
+
+    public boolean canSlide(int value) {
+        if (value <= 0 || value >= n) return false;
+        int t = cellOf(value), b = blank();
+        int dr = t / cols - b / cols, dc = t % cols - b % cols;
+        return (dr == 0 && (dc == 1 || dc == -1)) || (dc == 0 && (dr == 1 || dr == -1));
+    }
+
+    public boolean slide(int value) {
+        if (!canSlide(value)) return false;
+        swapWithBlank(cellOf(value));
+        return true;
+    }
+
+    /** Replaces the whole layout; values must be a permutation of 0..n-1. */
+    public void load(int[] values) {
+        if (values.length != n) throw new IllegalArgumentException("Expected " + n + " values.");
+        boolean[] seen = new boolean[n];
+        for (int v : values) {
+            if (v < 0 || v >= n || seen[v]) throw new IllegalArgumentException("Not a permutation of 0.." + (n - 1));
+            seen[v] = true;
+        }
+        misplaced = 0;
+        for (int cell = 0; cell < n; cell++) {
+            put(cell, values[cell]);
+            if (values[cell] != goal(cell)) misplaced++;
+        }
+    }
+
+    /** True if the current layout can reach the solved layout. */
+    public boolean isSolvable() {
+        int[] values = new int[n];
+        for (int cell = 0; cell < n; cell++) values[cell] = valueAt(cell);
+        return isSolvable(rows, cols, values);
+    }
+
+    /**
+     * Solvability test for any layout in O(n).
+     * Odd width: tile inversions must be even. Even width: inversions + blank rows from the bottom must be even.
+     * Inversion parity comes from the cycle count of the permutation instead of counting pairs.
+     */
+    public static boolean isSolvable(int rows, int cols, int[] values) {
+        int n = rows * cols;
+        if (values.length != n) throw new IllegalArgumentException("Expected " + n + " values.");
+        boolean[] seen = new boolean[n];
+        int cycles = 0, blank = -1;
+        for (int start = 0; start < n; start++) {
+            if (values[start] == 0) blank = start;
+            if (seen[start]) continue;
+            cycles++;
+            // follow cell -> goal cell of the value sitting there
+            for (int cell = start; !seen[cell]; cell = values[cell] == 0 ? n - 1 : values[cell] - 1)
+                seen[cell] = true;
+        }
+        int parity = (n - cycles) & 1;
+        // moving the blank (largest goal) to the end costs n-1-blank adjacent swaps; what's left is the tile inversions
+        int inversions = parity ^ ((n - 1 - blank) & 1);
+        int blankRowsFromBottom = rows - 1 - blank / cols;
+        return ((cols & 1) == 1 ? inversions : inversions ^ (blankRowsFromBottom & 1)) == 0;
+    }
+
+    /**
+     * Loads a uniformly random solvable, unsolved layout in O(n):
+     * Fisher-Yates shuffle, then one swap of two tiles if the parity is wrong.
+     */
+    public void shuffle(Random rng) {
+        int[] values = new int[n];
+        do {
+            for (int i = 0; i < n; i++) values[i] = i;
+            for (int i = n - 1; i > 0; i--) {
+                int j = rng.nextInt(i + 1);
+                int t = values[i]; values[i] = values[j]; values[j] = t;
+            }
+            if (!isSolvable(rows, cols, values)) {
+                // swapping two tiles (never the blank) flips the permutation parity
+                int a = values[0] == 0 ? 1 : 0;
+                int b = values[a + 1] == 0 ? a + 2 : a + 1;
+                int t = values[a]; values[a] = values[b]; values[b] = t;
+            }
+            load(values);
+        } while (isSolved());
+    }
+
+    /** Copies the layout into dst (one value per cell). */
+    public void copyTo(byte[] dst) {
+        for (int cell = 0; cell < n; cell++) dst[cell] = (byte) valueAt(cell);
+    }
+
+    /* Tile at cell slides into the blank; keeps the inverse and misplaced count in sync. */
+    private void swapWithBlank(int cell) {
+        int b = blank();
+        int v = valueAt(cell);
+        int gb = goal(b), gc = goal(cell);
+        misplaced -= (gb != 0 ? 1 : 0) + (gc != v ? 1 : 0);
+        put(b, v);
+        put(cell, 0);
+        misplaced += (gb != v ? 1 : 0) + (gc != 0 ? 1 : 0);
+    }
+
+    private void put(int cell, int value) {
+        if (cells == null) {
+            int shift = cell << 2;
+            packed = (packed & ~(0xFL << shift)) | ((long) value << shift);
+        } else {
+            cells[cell] = (byte) value;
+        }
+        where[value] = (byte) cell;
+    }
+}